@@ -18,8 +18,7 @@ package guru.nidi.ramlproxy;
 import guru.nidi.ramlproxy.core.*;
 import guru.nidi.ramlproxy.jetty.JettyRamlProxyServer;
 import guru.nidi.ramlproxy.jetty.JettyServerProvider;
-import guru.nidi.ramlproxy.report.ReportSaver;
-import guru.nidi.ramlproxy.report.Reporter;
+import guru.nidi.ramlproxy.report.*;
 import guru.nidi.ramltester.RamlDefinition;
 import org.w3c.dom.Document;
 
@@ -42,6 +41,10 @@ public class RamlProxy {
         JettyServerProvider.prestartServer(port);
     }
 
+    public static void prestartServer(ServerOptions options) {
+        JettyServerProvider.prestartServer(options.getPort(), options.getTuningOptions());
+    }
+
     public static RamlProxyServer startServerSync(ServerOptions options) throws Exception {
         return startServerSync(options, (RamlDefinition) null);
     }
@@ -51,7 +54,20 @@ public class RamlProxy {
     }
 
     public static RamlProxyServer startServerSync(ServerOptions options, RamlDefinition definition) throws Exception {
-        return startServerSync(options, new Reporter(options.getSaveDir(), options.getFileFormat()), definition);
+        final StorageOptions storage = options.getStorageOptions();
+        return startServerSync(options, reporter(options)
+                .limitedTo(storage.getMaxReports(), storage.getMaxBytes()), definition);
+    }
+
+    private static Reporter reporter(ServerOptions options) {
+        final OutputOptions output = options.getOutputOptions();
+        final WriterOptions writer = options.getWriterOptions();
+        final boolean logFile = output.isLogFile() && options.getSaveDir() != null;
+        final Reporter reporter = new Reporter(options.getSaveDir(), options.getFileFormat(),
+                logFile ? new LogFileViolationSink(options.getSaveDir(), options.getFileFormat(), output.getRotateSize()) : null);
+        return logFile || writer.isAsync()
+                ? reporter.writingAsync(writer.getQueueSize(), writer.getOverflow() == WriterOptions.Overflow.DROP, output.getFlushInterval())
+                : reporter;
     }
 
     public static RamlProxyServer startServerSync(ServerOptions options, ReportSaver saver, RamlDefinition definition) throws Exception {
@@ -36,7 +36,35 @@ class ClientOptionsParser extends OptionsParser<ClientOptions> {
         final Command command = parseCommand(cmd);
         final boolean clearReports = cmd.hasOption('r');
         final boolean clearUsage = cmd.hasOption('u');
-        return new ClientOptions(command, port, clearReports, clearUsage);
+        final long since = parseSince(cmd.getOptionValue('s'));
+        final int limit = parseLimit(cmd.getOptionValue('l'));
+        return new ClientOptions(command, port, clearReports, clearUsage, since, limit);
+    }
+
+    private long parseSince(String value) throws ParseException {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid since id '" + value + "'");
+        }
+    }
+
+    private int parseLimit(String value) throws ParseException {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            final int limit = Integer.parseInt(value);
+            if (limit <= 0) {
+                throw new ParseException("Limit must be positive");
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid limit '" + value + "'");
+        }
     }
 
     private Command parseCommand(CommandLine cmd) throws ParseException {
@@ -66,12 +94,13 @@ class ClientOptionsParser extends OptionsParser<ClientOptions> {
                 "reports      Get the reports of the RAML violations\n" +
                 "usage        Get information about usage of RAML elements\n" +
                 "validate     Get the validation report of the RAML itself\n" +
+                "stats        Get internal counters of the proxy\n" +
                 "Options:\n";
     }
 
     @Override
     protected OptionComparator optionComparator() {
-        return new OptionComparator("pru");
+        return new OptionComparator("prusl");
     }
 
     @SuppressWarnings("static-access")
@@ -80,7 +109,9 @@ class ClientOptionsParser extends OptionsParser<ClientOptions> {
         return new Options()
                 .addOption(withDescription("The port of the proxy\nDefault: " + DEFAULT_PORT).isRequired(false).withArgName("port").hasArg(true).create('p'))
                 .addOption(withDescription("Clear the reports").isRequired(false).create('r'))
-                .addOption(withDescription("Clear the usage").isRequired(false).create('u'));
+                .addOption(withDescription("Clear the usage").isRequired(false).create('u'))
+                .addOption(withDescription("Only get the reports with an id greater than this").isRequired(false).withArgName("id").hasArg(true).create('s'))
+                .addOption(withDescription("Get at most this number of reports").isRequired(false).withArgName("count").hasArg(true).create('l'));
     }
 
 }
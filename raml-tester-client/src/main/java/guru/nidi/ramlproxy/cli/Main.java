@@ -49,7 +49,7 @@ public class Main {
         if (options.isAsyncMode()) {
             RamlProxy.startServerAsync(options);
         } else {
-            RamlProxy.prestartServer(options.getPort());
+            RamlProxy.prestartServer(options);
             final RamlDefinition definition = validate(options);
             if (options.isValidationOnly()) {
                 return;
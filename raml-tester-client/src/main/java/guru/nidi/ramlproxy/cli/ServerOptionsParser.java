@@ -15,8 +15,17 @@
  */
 package guru.nidi.ramlproxy.cli;
 
+import guru.nidi.ramlproxy.core.CaptureOptions;
+import guru.nidi.ramlproxy.core.LatencyOptions;
+import guru.nidi.ramlproxy.core.OutputOptions;
+import guru.nidi.ramlproxy.core.SamplingOptions;
 import guru.nidi.ramlproxy.core.ServerOptions;
+import guru.nidi.ramlproxy.core.StorageOptions;
+import guru.nidi.ramlproxy.core.TuningOptions;
+import guru.nidi.ramlproxy.core.UpstreamOptions;
+import guru.nidi.ramlproxy.core.ValidationOptions;
 import guru.nidi.ramlproxy.core.ValidatorConfigurator;
+import guru.nidi.ramlproxy.core.WriterOptions;
 import guru.nidi.ramlproxy.report.ReportFormat;
 import guru.nidi.ramltester.core.Validation;
 import org.apache.commons.cli.BasicParser;
@@ -28,8 +37,10 @@ import org.apache.commons.lang.StringUtils;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import static org.apache.commons.cli.OptionBuilder.withDescription;
 
@@ -51,7 +62,401 @@ class ServerOptionsParser extends OptionsParser<ServerOptions> {
         final boolean asyncMode = cmd.hasOption('a');
         final int[] delay = parseDelay(cmd.getOptionValue('d'));
         final ValidatorConfigurator validatorConfigurator = parseValidator(cmd.hasOption('v'), cmd.getOptionValue('v'));
-        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, delay[0], delay[1], validatorConfigurator);
+        final ValidationOptions validationOptions = parseValidationOptions(cmd.hasOption('e'), cmd.getOptionValue('e'));
+        final SamplingOptions samplingOptions = parseSamplingOptions(cmd.getOptionValue('l'));
+        final StorageOptions storageOptions = parseStorageOptions(cmd.getOptionValue('c'));
+        final OutputOptions outputOptions = parseOutputOptions(cmd.hasOption('o'), cmd.getOptionValue('o'));
+        final WriterOptions writerOptions = parseWriterOptions(cmd.hasOption('w'), cmd.getOptionValue('w'));
+        final LatencyOptions latencyOptions = parseLatencyOptions(cmd.getOptionValue('y'));
+        final TuningOptions tuningOptions = parseTuningOptions(cmd.getOptionValue('j'));
+        final UpstreamOptions upstreamOptions = parseUpstreamOptions(cmd.getOptionValue('u'));
+        final CaptureOptions captureOptions = parseCaptureOptions(cmd.getOptionValue('k'));
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, delay[0], delay[1], validatorConfigurator)
+                .withValidationOptions(validationOptions)
+                .withSamplingOptions(samplingOptions)
+                .withStorageOptions(storageOptions)
+                .withOutputOptions(outputOptions)
+                .withWriterOptions(writerOptions)
+                .withLatencyOptions(latencyOptions)
+                .withTuningOptions(tuningOptions)
+                .withUpstreamOptions(upstreamOptions)
+                .withCaptureOptions(captureOptions);
+    }
+
+    private CaptureOptions parseCaptureOptions(String k) throws ParseException {
+        if (k == null) {
+            return CaptureOptions.UNLIMITED;
+        }
+        long maxBytes = 0;
+        final List<String> skipTypes = new ArrayList<>();
+        for (final String part : k.split(",")) {
+            final String[] sub = part.split("=");
+            if (sub.length != 2) {
+                throw new ParseException("Invalid capture option '" + part + "'");
+            }
+            switch (sub[0]) {
+                case "bytes":
+                    maxBytes = parseBytes(sub[0], sub[1]);
+                    break;
+                case "skip":
+                    if (sub[1].indexOf('/') <= 0) {
+                        throw new ParseException("Invalid content type '" + sub[1] + "'");
+                    }
+                    skipTypes.add(sub[1].toLowerCase(Locale.ENGLISH));
+                    break;
+                default:
+                    throw new ParseException("Unknown capture option '" + sub[0] + "'");
+            }
+        }
+        return new CaptureOptions("-k" + k, maxBytes, skipTypes);
+    }
+
+    private UpstreamOptions parseUpstreamOptions(String u) throws ParseException {
+        if (u == null) {
+            return UpstreamOptions.DEFAULT;
+        }
+        int maxConnections = UpstreamOptions.DEFAULT_MAX_CONNECTIONS;
+        int maxQueued = UpstreamOptions.DEFAULT_MAX_QUEUED;
+        long connectTimeout = UpstreamOptions.DEFAULT_CONNECT_TIMEOUT;
+        long idleTimeout = UpstreamOptions.DEFAULT_IDLE_TIMEOUT;
+        long timeout = UpstreamOptions.DEFAULT_TIMEOUT;
+        boolean tcpNoDelay = true, keepAlive = true;
+        int warmConnections = 0;
+        for (final String part : u.split(",")) {
+            final String[] sub = part.split("=");
+            if (sub.length != 2) {
+                throw new ParseException("Invalid upstream option '" + part + "'");
+            }
+            switch (sub[0]) {
+                case "connections":
+                    maxConnections = parsePositive(sub[0], sub[1]);
+                    break;
+                case "queue":
+                    maxQueued = parsePositive(sub[0], sub[1]);
+                    break;
+                case "connectTimeout":
+                    connectTimeout = parsePositive(sub[0], sub[1]);
+                    break;
+                case "idle":
+                    idleTimeout = parsePositive(sub[0], sub[1]);
+                    break;
+                case "timeout":
+                    timeout = parsePositive(sub[0], sub[1]);
+                    break;
+                case "noDelay":
+                    tcpNoDelay = Boolean.parseBoolean(sub[1]);
+                    break;
+                case "keepAlive":
+                    keepAlive = Boolean.parseBoolean(sub[1]);
+                    break;
+                case "warm":
+                    warmConnections = parsePositive(sub[0], sub[1]);
+                    break;
+                default:
+                    throw new ParseException("Unknown upstream option '" + sub[0] + "'");
+            }
+        }
+        if (warmConnections > maxConnections) {
+            throw new ParseException("Cannot warm up more than " + maxConnections + " connections");
+        }
+        if (warmConnections > 0 && !keepAlive) {
+            throw new ParseException("Cannot warm up connections with keepAlive=false");
+        }
+        return new UpstreamOptions("-u" + u, maxConnections, maxQueued, connectTimeout, idleTimeout, timeout, tcpNoDelay, keepAlive, warmConnections);
+    }
+
+    private TuningOptions parseTuningOptions(String j) throws ParseException {
+        if (j == null) {
+            return TuningOptions.DEFAULT;
+        }
+        int minThreads = 0, maxThreads = 0, maxQueued = 0, acceptors = -1, selectors = -1, acceptQueue = 0;
+        long idleTimeout = 0;
+        boolean virtualThreads = false;
+        for (final String part : j.split(",")) {
+            final String[] sub = part.split("=");
+            if (sub.length != 2) {
+                throw new ParseException("Invalid tuning option '" + part + "'");
+            }
+            switch (sub[0]) {
+                case "threads":
+                    final int pos = sub[1].indexOf('-');
+                    if (pos < 0) {
+                        maxThreads = parsePositive(sub[0], sub[1]);
+                    } else {
+                        minThreads = parsePositive(sub[0], sub[1].substring(0, pos));
+                        maxThreads = parsePositive(sub[0], sub[1].substring(pos + 1));
+                    }
+                    break;
+                case "queue":
+                    maxQueued = parsePositive(sub[0], sub[1]);
+                    break;
+                case "acceptors":
+                    acceptors = (int) parseNonNegative(sub[0], sub[1]);
+                    break;
+                case "selectors":
+                    selectors = parsePositive(sub[0], sub[1]);
+                    break;
+                case "acceptQueue":
+                    acceptQueue = parsePositive(sub[0], sub[1]);
+                    break;
+                case "idle":
+                    idleTimeout = parsePositive(sub[0], sub[1]);
+                    break;
+                case "virtual":
+                    virtualThreads = Boolean.parseBoolean(sub[1]);
+                    break;
+                default:
+                    throw new ParseException("Unknown tuning option '" + sub[0] + "'");
+            }
+        }
+        if (minThreads > maxThreads && maxThreads > 0) {
+            throw new ParseException("Minimum threads must not be greater than maximum threads");
+        }
+        return new TuningOptions("-j" + j, minThreads, maxThreads, maxQueued, acceptors, selectors, acceptQueue, idleTimeout, virtualThreads);
+    }
+
+    private LatencyOptions parseLatencyOptions(String y) throws ParseException {
+        if (y == null) {
+            return LatencyOptions.UNIFORM;
+        }
+        LatencyOptions.Distribution distribution = LatencyOptions.Distribution.UNIFORM;
+        double mean = 0, stddev = 0, shape = 0;
+        long bytesPerSecond = 0;
+        final Map<String, Double> resourceMeans = new LinkedHashMap<>();
+        for (final String part : y.split(",")) {
+            final String[] sub = part.split("=");
+            if (sub.length != 2) {
+                throw new ParseException("Invalid latency option '" + part + "'");
+            }
+            if (sub[0].startsWith("/")) {
+                resourceMeans.put(sub[0], parseNonNegative(sub[0], sub[1]));
+                continue;
+            }
+            switch (sub[0]) {
+                case "distribution":
+                    try {
+                        distribution = LatencyOptions.Distribution.valueOf(sub[1].toUpperCase(Locale.ENGLISH));
+                    } catch (IllegalArgumentException e) {
+                        throw new ParseException("Unknown latency distribution '" + sub[1] + "'");
+                    }
+                    break;
+                case "mean":
+                    mean = parseNonNegative(sub[0], sub[1]);
+                    break;
+                case "stddev":
+                    stddev = parseNonNegative(sub[0], sub[1]);
+                    break;
+                case "shape":
+                    shape = parseNonNegative(sub[0], sub[1]);
+                    break;
+                case "bandwidth":
+                    bytesPerSecond = parseBytes(sub[0], sub[1]);
+                    break;
+                default:
+                    throw new ParseException("Unknown latency option '" + sub[0] + "'");
+            }
+        }
+        if (distribution != LatencyOptions.Distribution.UNIFORM && mean <= 0) {
+            throw new ParseException("Latency distribution " + distribution.name().toLowerCase(Locale.ENGLISH) + " needs a positive mean");
+        }
+        if (distribution == LatencyOptions.Distribution.PARETO && shape <= 1) {
+            throw new ParseException("Pareto latency distribution needs a shape greater than 1");
+        }
+        return new LatencyOptions("-y" + y, distribution, mean, stddev, shape, resourceMeans, bytesPerSecond);
+    }
+
+    private double parseNonNegative(String name, String value) throws ParseException {
+        try {
+            final double res = Double.parseDouble(value);
+            if (res < 0) {
+                throw new ParseException("Option '" + name + "' must not be negative");
+            }
+            return res;
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid number in option '" + name + "': '" + value + "'");
+        }
+    }
+
+    private WriterOptions parseWriterOptions(boolean hasW, String w) throws ParseException {
+        if (!hasW) {
+            return WriterOptions.SYNC;
+        }
+        int queueSize = WriterOptions.DEFAULT_QUEUE_SIZE;
+        WriterOptions.Overflow overflow = WriterOptions.Overflow.BLOCK;
+        if (w != null) {
+            for (final String part : w.split(",")) {
+                final String[] sub = part.split("=");
+                if (sub.length != 2) {
+                    throw new ParseException("Invalid writer option '" + part + "'");
+                }
+                switch (sub[0]) {
+                    case "queue":
+                        queueSize = parsePositive(sub[0], sub[1]);
+                        break;
+                    case "overflow":
+                        overflow = parseWriterOverflow(sub[1]);
+                        break;
+                    default:
+                        throw new ParseException("Unknown writer option '" + sub[0] + "'");
+                }
+            }
+        }
+        return new WriterOptions("-w" + (w == null ? "" : w), true, queueSize, overflow);
+    }
+
+    private OutputOptions parseOutputOptions(boolean hasO, String o) throws ParseException {
+        if (!hasO) {
+            return OutputOptions.FILE_PER_VIOLATION;
+        }
+        long flushInterval = OutputOptions.DEFAULT_FLUSH_INTERVAL;
+        long rotateSize = 0;
+        if (o != null) {
+            for (final String part : o.split(",")) {
+                final String[] sub = part.split("=");
+                if (sub.length != 2) {
+                    throw new ParseException("Invalid output option '" + part + "'");
+                }
+                switch (sub[0]) {
+                    case "flush":
+                        flushInterval = parsePositive(sub[0], sub[1]);
+                        break;
+                    case "rotate":
+                        rotateSize = parseBytes(sub[0], sub[1]);
+                        break;
+                    default:
+                        throw new ParseException("Unknown output option '" + sub[0] + "'");
+                }
+            }
+        }
+        return new OutputOptions("-o" + (o == null ? "" : o), true, flushInterval, rotateSize);
+    }
+
+    private StorageOptions parseStorageOptions(String c) throws ParseException {
+        if (c == null) {
+            return StorageOptions.UNLIMITED;
+        }
+        int maxReports = 0;
+        long maxBytes = 0;
+        for (final String part : c.split(",")) {
+            final String[] sub = part.split("=");
+            if (sub.length != 2) {
+                throw new ParseException("Invalid report storage option '" + part + "'");
+            }
+            switch (sub[0]) {
+                case "reports":
+                    maxReports = parsePositive(sub[0], sub[1]);
+                    break;
+                case "bytes":
+                    maxBytes = parseBytes(sub[0], sub[1]);
+                    break;
+                default:
+                    throw new ParseException("Unknown report storage option '" + sub[0] + "'");
+            }
+        }
+        return new StorageOptions("-c" + c, maxReports, maxBytes);
+    }
+
+    private long parseBytes(String name, String value) throws ParseException {
+        final String lower = value.toLowerCase(Locale.ENGLISH);
+        final int unitPos = "kmg".indexOf(lower.charAt(lower.length() - 1));
+        final long factor = unitPos < 0 ? 1 : (1L << (10 * (unitPos + 1)));
+        return factor * parsePositive(name, unitPos < 0 ? lower : lower.substring(0, lower.length() - 1));
+    }
+
+    private SamplingOptions parseSamplingOptions(String l) throws ParseException {
+        if (l == null) {
+            return SamplingOptions.ALL;
+        }
+        double rate = 1;
+        int first = 0;
+        final Map<String, Double> resourceRates = new LinkedHashMap<>();
+        for (final String part : l.split(",")) {
+            final String[] sub = part.split("=");
+            if (sub.length != 2) {
+                throw new ParseException("Invalid sampling option '" + part + "'");
+            }
+            if (sub[0].startsWith("/")) {
+                resourceRates.put(sub[0], parseRate(sub[1]));
+            } else if (sub[0].equals("rate")) {
+                rate = parseRate(sub[1]);
+            } else if (sub[0].equals("first")) {
+                first = parsePositive(sub[0], sub[1]);
+            } else {
+                throw new ParseException("Unknown sampling option '" + sub[0] + "'");
+            }
+        }
+        return new SamplingOptions("-l" + l, rate, first, resourceRates);
+    }
+
+    private double parseRate(String value) throws ParseException {
+        try {
+            final double rate = Double.parseDouble(value);
+            if (rate < 0 || rate > 1) {
+                throw new ParseException("Sampling rate must be between 0 and 1");
+            }
+            return rate;
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid sampling rate '" + value + "'");
+        }
+    }
+
+    private ValidationOptions parseValidationOptions(boolean hasE, String e) throws ParseException {
+        if (!hasE) {
+            return ValidationOptions.SYNC;
+        }
+        int threads = ValidationOptions.DEFAULT_THREADS;
+        int queueSize = ValidationOptions.DEFAULT_QUEUE_SIZE;
+        ValidationOptions.Overflow overflow = ValidationOptions.Overflow.BLOCK;
+        if (e != null) {
+            for (final String part : e.split(",")) {
+                final String[] sub = part.split("=");
+                if (sub.length != 2) {
+                    throw new ParseException("Invalid validation option '" + part + "'");
+                }
+                switch (sub[0]) {
+                    case "threads":
+                        threads = parsePositive(sub[0], sub[1]);
+                        break;
+                    case "queue":
+                        queueSize = parsePositive(sub[0], sub[1]);
+                        break;
+                    case "overflow":
+                        overflow = parseOverflow(sub[1]);
+                        break;
+                    default:
+                        throw new ParseException("Unknown validation option '" + sub[0] + "'");
+                }
+            }
+        }
+        return new ValidationOptions("-e" + (e == null ? "" : e), true, threads, queueSize, overflow);
+    }
+
+    private ValidationOptions.Overflow parseOverflow(String value) throws ParseException {
+        try {
+            return ValidationOptions.Overflow.valueOf(value.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new ParseException("Unknown overflow policy '" + value + "'");
+        }
+    }
+
+    private WriterOptions.Overflow parseWriterOverflow(String value) throws ParseException {
+        try {
+            return WriterOptions.Overflow.valueOf(value.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new ParseException("Unknown overflow policy '" + value + "'");
+        }
+    }
+
+    private int parsePositive(String name, String value) throws ParseException {
+        try {
+            final int res = Integer.parseInt(value);
+            if (res <= 0) {
+                throw new ParseException("Option '" + name + "' must be positive");
+            }
+            return res;
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid number in option '" + name + "': '" + value + "'");
+        }
     }
 
     private ValidatorConfigurator parseValidator(boolean hasV, final String v) throws ParseException {
@@ -166,7 +571,7 @@ class ServerOptionsParser extends OptionsParser<ServerOptions> {
 
     @Override
     protected OptionComparator optionComparator() {
-        return new OptionComparator("rptmbasfidv");
+        return new OptionComparator("rptmbasfidyvelcowjuk");
     }
 
     @SuppressWarnings("static-access")
@@ -184,6 +589,15 @@ class ServerOptionsParser extends OptionsParser<ServerOptions> {
                 .addOption(withDescription("Ignore X-headers\nDefault: false").isRequired(false).hasArg(false).create('i'))
                 .addOption(withDescription("Asynchronous mode\nDefault: false").isRequired(false).hasArg(false).create('a'))
                 .addOption(withDescription("Delay the response (in milliseconds)\nFormat: [minDelay-]maxDelay\nDefault: 0").isRequired(false).withArgName("delay").hasArg(true).create('d'))
-                .addOption(withDescription("Validate the RAML\nFormat: Comma separated list of validations\nValidations are " + validations + ", resourcePattern=regex, paramPattern=regex, headerPattern=regex\nDefault: All parameterless validations").isRequired(false).withArgName("validations").hasOptionalArg().create('v'));
+                .addOption(withDescription("Validate the RAML\nFormat: Comma separated list of validations\nValidations are " + validations + ", resourcePattern=regex, paramPattern=regex, headerPattern=regex\nDefault: All parameterless validations").isRequired(false).withArgName("validations").hasOptionalArg().create('v'))
+                .addOption(withDescription("Validate requests asynchronously, not on the request thread\nFormat: Comma separated list of threads=n, queue=n, overflow=block|drop|sample\nDefault: threads=number of cores, queue=" + ValidationOptions.DEFAULT_QUEUE_SIZE + ", overflow=block").isRequired(false).withArgName("options").hasOptionalArg().create('e'))
+                .addOption(withDescription("Fully validate only a sample of the requests, track usage of all\nFormat: Comma separated list of rate=0..1, first=n, /resource/{param}=0..1\nDefault: rate=1").isRequired(false).withArgName("sampling").hasArg(true).create('l'))
+                .addOption(withDescription("Limit the reports kept in memory per RAML, the oldest are removed first\nFormat: Comma separated list of reports=n, bytes=n[k|m|g]\nDefault: no limit").isRequired(false).withArgName("limits").hasArg(true).create('c'))
+                .addOption(withDescription("Write all violations into one log file per run instead of one file per violation\nFormat: Comma separated list of flush=ms, rotate=n[k|m|g]\nDefault: flush=" + OutputOptions.DEFAULT_FLUSH_INTERVAL + ", no rotation").isRequired(false).withArgName("options").hasOptionalArg().create('o'))
+                .addOption(withDescription("Write report files on a background thread\nFormat: Comma separated list of queue=n, overflow=block|drop\nDefault: queue=" + WriterOptions.DEFAULT_QUEUE_SIZE + ", overflow=block").isRequired(false).withArgName("options").hasOptionalArg().create('w'))
+                .addOption(withDescription("Simulate latency and bandwidth, bounded by the delay option if given\nFormat: Comma separated list of distribution=uniform|normal|lognormal|pareto, mean=ms, stddev=ms, shape=x, bandwidth=n[k|m|g] (bytes per second), /resource/{param}=mean ms\nDefault: uniform between the delay values").isRequired(false).withArgName("latency").hasArg(true).create('y'))
+                .addOption(withDescription("Tune the jetty server\nFormat: Comma separated list of threads=[min-]max, queue=n (max queued requests), acceptors=n, selectors=n, acceptQueue=n, idle=ms (connection idle timeout), virtual=true|false (needs java 21)\nDefault: jetty defaults").isRequired(false).withArgName("options").hasArg(true).create('j'))
+                .addOption(withDescription("Configure the connections to the target\nFormat: Comma separated list of connections=n, queue=n (max queued requests), connectTimeout=ms, idle=ms, timeout=ms (total request time), noDelay=true|false, keepAlive=true|false, warm=n (connections to open at startup)\nDefault: connections=" + UpstreamOptions.DEFAULT_MAX_CONNECTIONS + ", queue=" + UpstreamOptions.DEFAULT_MAX_QUEUED + ", connectTimeout=" + UpstreamOptions.DEFAULT_CONNECT_TIMEOUT + ", idle=" + UpstreamOptions.DEFAULT_IDLE_TIMEOUT + ", timeout=" + UpstreamOptions.DEFAULT_TIMEOUT + ", noDelay=true, keepAlive=true, warm=0").isRequired(false).withArgName("options").hasArg(true).create('u'))
+                .addOption(withDescription("Limit the response bodies kept for validation, larger or skipped bodies are only validated without their content\nFormat: Comma separated list of bytes=n[k|m|g], skip=type/subtype or type/* (repeatable)\nDefault: no limit").isRequired(false).withArgName("capture").hasArg(true).create('k'));
     }
 }
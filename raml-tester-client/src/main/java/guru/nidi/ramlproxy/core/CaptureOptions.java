@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import guru.nidi.ramlproxy.report.CapturingServletRamlResponse;
+
+import java.util.Collections;
+import java.util.List;
+
+public class CaptureOptions {
+    public static final CaptureOptions UNLIMITED = new CaptureOptions("", 0, Collections.<String>emptyList());
+
+    private final String cli;
+    private final long maxBytes;
+    private final List<String> skipTypes;
+
+    public CaptureOptions(String cli, long maxBytes, List<String> skipTypes) {
+        this.cli = cli;
+        this.maxBytes = maxBytes;
+        this.skipTypes = skipTypes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public List<String> getSkipTypes() {
+        return skipTypes;
+    }
+
+    //types are given as type/subtype or type/*
+    public boolean isSkipped(String contentType) {
+        return CapturingServletRamlResponse.isSkippedType(contentType, skipTypes);
+    }
+
+    public String asCli() {
+        return cli;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final CaptureOptions that = (CaptureOptions) o;
+
+        if (maxBytes != that.maxBytes) {
+            return false;
+        }
+        return skipTypes.equals(that.skipTypes);
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (maxBytes ^ (maxBytes >>> 32));
+        result = 31 * result + skipTypes.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CaptureOptions{" +
+                "maxBytes=" + maxBytes +
+                ", skipTypes=" + skipTypes +
+                '}';
+    }
+}
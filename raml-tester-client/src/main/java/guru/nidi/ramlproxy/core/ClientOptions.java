@@ -20,16 +20,24 @@ public class ClientOptions {
     private final int port;
     private final boolean clearReports;
     private final boolean clearUsage;
+    private final long since;
+    private final int limit;
 
     public ClientOptions(Command command, int port) {
         this(command, port, false, false);
     }
 
     public ClientOptions(Command command, int port, boolean clearReports, boolean clearUsage) {
+        this(command, port, clearReports, clearUsage, -1, 0);
+    }
+
+    public ClientOptions(Command command, int port, boolean clearReports, boolean clearUsage, long since, int limit) {
         this.command = command;
         this.port = port;
         this.clearReports = clearReports;
         this.clearUsage = clearUsage;
+        this.since = since;
+        this.limit = limit;
     }
 
     public Command getCommand() {
@@ -47,4 +55,12 @@ public class ClientOptions {
     public boolean isClearUsage() {
         return clearUsage;
     }
+
+    public long getSince() {
+        return since;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
 }
@@ -15,22 +15,23 @@
  */
 package guru.nidi.ramlproxy.core;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import guru.nidi.ramlproxy.data.StatsDatas;
 import guru.nidi.ramlproxy.data.UsageDatas;
 import guru.nidi.ramlproxy.data.ValidationData;
-import guru.nidi.ramlproxy.data.ViolationData;
 import guru.nidi.ramlproxy.data.ViolationDatas;
 import guru.nidi.ramlproxy.report.ReportFormat;
 import guru.nidi.ramlproxy.report.ReportSaver;
 import guru.nidi.ramltester.core.RamlReport;
-import guru.nidi.ramltester.core.Usage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -90,11 +91,7 @@ public enum Command {
 
         @Override
         public void execute(CommandContext context, PrintWriter out) throws IOException {
-            final UsageDatas res = new UsageDatas();
-            for (final Map.Entry<String, Usage> usage : context.getSaver().getAggregator().usages()) {
-                res.put(usage.getKey(), ReportFormat.createUsageData(usage.getValue()));
-            }
-            out.print(MAPPER.writeValueAsString(res));
+            out.print(MAPPER.writeValueAsString(context.getSaver().getUsageDatas()));
             log("Usage sent");
         }
 
@@ -104,20 +101,36 @@ public enum Command {
         }
     },
     REPORTS("reports", Type.JSON) {
-        private final ObjectMapper MAPPER = new ObjectMapper();
+        private final ObjectMapper MAPPER = new ObjectMapper().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        @Override
+        public void apply(CommandContext context, HttpServletResponse response) {
+            super.apply(context, response);
+            response.setHeader(EVICTED_REPORTS_HEADER, Long.toString(context.getSaver().getEvictedReports()));
+        }
 
         @Override
         public void execute(CommandContext context, PrintWriter out) throws IOException {
-            final ViolationDatas res = new ViolationDatas();
-            int id = 0;
-            for (final Map.Entry<String, List<ReportSaver.ReportInfo>> infoMap : context.getSaver().getReports()) {
-                final List<ViolationData> data = new ArrayList<>();
+            write(context.getSaver().getReports(), out);
+        }
+
+        @Override
+        public void execute(CommandContext context, HttpServletRequest request, PrintWriter out) throws IOException {
+            write(context.getSaver().getReports(longParam(request, SINCE_PARAM, -1), (int) longParam(request, LIMIT_PARAM, 0)), out);
+        }
+
+        private void write(Iterable<Map.Entry<String, List<ReportSaver.ReportInfo>>> reports, PrintWriter out) throws IOException {
+            final JsonGenerator gen = MAPPER.getFactory().createGenerator(out);
+            gen.writeStartObject();
+            for (final Map.Entry<String, List<ReportSaver.ReportInfo>> infoMap : reports) {
+                gen.writeArrayFieldStart(infoMap.getKey());
                 for (final ReportSaver.ReportInfo info : infoMap.getValue()) {
-                    data.add(ReportFormat.createViolationData(id++, info.getReport(), info.getRequest(), info.getResponse()));
+                    gen.writeObject(ReportFormat.createViolationData(info.getId(), info.getReport(), info.getRequest(), info.getResponse()));
                 }
-                res.put(infoMap.getKey(), data);
+                gen.writeEndArray();
             }
-            out.print(MAPPER.writeValueAsString(res));
+            gen.writeEndObject();
+            gen.flush();
             log("Reports sent");
         }
 
@@ -140,6 +153,20 @@ public enum Command {
             return MAPPER.readValue(response, ValidationData.class);
         }
     },
+    STATS("stats", Type.JSON) {
+        private final ObjectMapper MAPPER = new ObjectMapper();
+
+        @Override
+        public void execute(CommandContext context, PrintWriter out) throws IOException {
+            out.print(MAPPER.writeValueAsString(context.getStats()));
+            log("Stats sent");
+        }
+
+        @Override
+        public StatsDatas decode(String response) throws IOException {
+            return MAPPER.readValue(response, StatsDatas.class);
+        }
+    },
     CLEAR_REPORTS("reports/clear", Type.TEXT) {
         @Override
         public void execute(CommandContext context, PrintWriter out) throws IOException {
@@ -166,6 +193,9 @@ public enum Command {
     };
 
     private final static Logger log = LoggerFactory.getLogger(Command.class);
+    public static final String EVICTED_REPORTS_HEADER = "X-Evicted-Reports";
+    public static final String SINCE_PARAM = "since";
+    public static final String LIMIT_PARAM = "limit";
 
     private static final class Type {
         public static final String
@@ -196,9 +226,13 @@ public enum Command {
 
     abstract public void execute(CommandContext context, PrintWriter out) throws IOException;
 
+    public void execute(CommandContext context, HttpServletRequest request, PrintWriter out) throws IOException {
+        execute(context, out);
+    }
+
     abstract public Object decode(String response) throws IOException;
 
-    public void apply(HttpServletResponse response) {
+    public void apply(CommandContext context, HttpServletResponse response) {
         response.setContentType(type);
     }
 
@@ -206,6 +240,18 @@ public enum Command {
         log.info(message);
     }
 
+    private static long longParam(HttpServletRequest request, String name, long defaultValue) throws IOException {
+        final String value = request.getParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number in parameter '" + name + "': '" + value + "'");
+        }
+    }
+
     private static String asserted(String content, String expected) throws IOException {
         if (!content.equals(expected)) {
             throw new IOException("Unexpected response: '" + content + "'");
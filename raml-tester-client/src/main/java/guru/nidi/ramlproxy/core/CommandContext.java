@@ -15,6 +15,7 @@
  */
 package guru.nidi.ramlproxy.core;
 
+import guru.nidi.ramlproxy.data.StatsDatas;
 import guru.nidi.ramlproxy.report.ReportSaver;
 import guru.nidi.ramltester.core.RamlReport;
 
@@ -26,4 +27,6 @@ public interface CommandContext {
     void stopProxy() throws Exception;
 
     ReportSaver getSaver();
+
+    StatsDatas getStats();
 }
@@ -80,6 +80,12 @@ public class CommandSender {
         if (options.isClearUsage()) {
             query += "&" + CommandDecorators.CLEAR_USAGE.set(null, null);
         }
+        if (options.getSince() >= 0) {
+            query += "&" + Command.SINCE_PARAM + "=" + options.getSince();
+        }
+        if (options.getLimit() > 0) {
+            query += "&" + Command.LIMIT_PARAM + "=" + options.getLimit();
+        }
         return query;
     }
 
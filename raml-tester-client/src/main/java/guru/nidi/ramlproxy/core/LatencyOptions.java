@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class LatencyOptions {
+    public enum Distribution {
+        UNIFORM, NORMAL, LOGNORMAL, PARETO
+    }
+
+    public static final LatencyOptions UNIFORM = new LatencyOptions("", Distribution.UNIFORM, 0, 0, 0, Collections.<String, Double>emptyMap(), 0);
+
+    private final String cli;
+    private final Distribution distribution;
+    private final double mean;
+    private final double stddev;
+    private final double shape;
+    private final Map<String, Double> resourceMeans;
+    private final long bytesPerSecond;
+
+    public LatencyOptions(String cli, Distribution distribution, double mean, double stddev, double shape, Map<String, Double> resourceMeans, long bytesPerSecond) {
+        this.cli = cli;
+        this.distribution = distribution;
+        this.mean = mean;
+        this.stddev = stddev;
+        this.shape = shape;
+        this.resourceMeans = new LinkedHashMap<>(resourceMeans);
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStddev() {
+        return stddev;
+    }
+
+    public double getShape() {
+        return shape;
+    }
+
+    public Map<String, Double> getResourceMeans() {
+        return resourceMeans;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public String asCli() {
+        return cli;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final LatencyOptions that = (LatencyOptions) o;
+
+        if (Double.compare(that.mean, mean) != 0) {
+            return false;
+        }
+        if (Double.compare(that.stddev, stddev) != 0) {
+            return false;
+        }
+        if (Double.compare(that.shape, shape) != 0) {
+            return false;
+        }
+        if (bytesPerSecond != that.bytesPerSecond) {
+            return false;
+        }
+        if (distribution != that.distribution) {
+            return false;
+        }
+        return resourceMeans.equals(that.resourceMeans);
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result;
+        long temp;
+        result = distribution != null ? distribution.hashCode() : 0;
+        temp = Double.doubleToLongBits(mean);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(stddev);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(shape);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + resourceMeans.hashCode();
+        result = 31 * result + (int) (bytesPerSecond ^ (bytesPerSecond >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyOptions{" +
+                "distribution=" + distribution +
+                ", mean=" + mean +
+                ", stddev=" + stddev +
+                ", shape=" + shape +
+                ", resourceMeans=" + resourceMeans +
+                ", bytesPerSecond=" + bytesPerSecond +
+                '}';
+    }
+}
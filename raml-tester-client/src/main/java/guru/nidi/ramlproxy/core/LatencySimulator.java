@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Draws the delay of a request from the configured distribution, bounded by the min/max delay if given.
+ * A resource mean scales the whole distribution for the matching requests.
+ */
+public class LatencySimulator {
+    private final LatencyOptions options;
+    private final int minDelay;
+    private final int maxDelay;
+    private final Map<Pattern, Double> resourceFactors = new LinkedHashMap<>();
+
+    public LatencySimulator(LatencyOptions options, int minDelay, int maxDelay) {
+        this.options = options;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        final double baseMean = baseMean();
+        for (final Map.Entry<String, Double> entry : options.getResourceMeans().entrySet()) {
+            resourceFactors.put(Sampler.templatePattern(entry.getKey()), baseMean == 0 ? 0 : entry.getValue() / baseMean);
+        }
+    }
+
+    public boolean isDelaying() {
+        return maxDelay > 0 || options.getDistribution() != LatencyOptions.Distribution.UNIFORM;
+    }
+
+    public boolean isThrottling() {
+        return options.getBytesPerSecond() > 0;
+    }
+
+    public long nextDelay(String path) {
+        if (!isDelaying()) {
+            return 0;
+        }
+        double factor = 1;
+        if (path != null) {
+            for (final Map.Entry<Pattern, Double> entry : resourceFactors.entrySet()) {
+                if (entry.getKey().matcher(path).matches()) {
+                    factor = entry.getValue();
+                    break;
+                }
+            }
+        }
+        final double delay = bounded(sample(ThreadLocalRandom.current()) * factor);
+        return Math.round(delay);
+    }
+
+    //the time it takes to send the given number of bytes
+    public long transferTime(long bytes) {
+        return isThrottling() ? bytes * 1000 / options.getBytesPerSecond() : 0;
+    }
+
+    private double sample(Random random) {
+        final double mean = options.getMean();
+        final double stddev = options.getStddev();
+        switch (options.getDistribution()) {
+            case NORMAL:
+                return mean + stddev * random.nextGaussian();
+            case LOGNORMAL:
+                final double sigma2 = Math.log(1 + (stddev * stddev) / (mean * mean));
+                final double mu = Math.log(mean) - sigma2 / 2;
+                return Math.exp(mu + Math.sqrt(sigma2) * random.nextGaussian());
+            case PARETO:
+                final double shape = options.getShape();
+                final double scale = mean * (shape - 1) / shape;
+                return scale / Math.pow(1 - random.nextDouble(), 1 / shape);
+            default:
+                return minDelay + Math.floor(random.nextDouble() * (1 + maxDelay - minDelay));
+        }
+    }
+
+    private double bounded(double delay) {
+        if (maxDelay > 0 && options.getDistribution() != LatencyOptions.Distribution.UNIFORM) {
+            return Math.min(maxDelay, Math.max(minDelay, delay));
+        }
+        return Math.max(0, delay);
+    }
+
+    private double baseMean() {
+        return options.getDistribution() == LatencyOptions.Distribution.UNIFORM
+                ? (minDelay + maxDelay) / 2.0
+                : options.getMean();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content of a mock file with its validators and the compressed variants created so far.
+ */
+class MockBody {
+    public static final String GZIP = "gzip", DEFLATE = "deflate";
+
+    private final ByteBuffer content;
+    private final String contentType;
+    private final long lastModified;
+    private final String etag;
+    private final ConcurrentMap<String, ByteBuffer> encoded = new ConcurrentHashMap<>();
+
+    public MockBody(ByteBuffer content, String contentType, long lastModified) {
+        this.content = content;
+        this.contentType = contentType;
+        this.lastModified = lastModified;
+        etag = "\"" + digest(content.duplicate()) + "\"";
+    }
+
+    //a new view on the content, safe to be consumed by one request
+    public ByteBuffer getContent() {
+        return content.duplicate();
+    }
+
+    public ByteBuffer getContent(String encoding) throws IOException {
+        if (encoding == null) {
+            return getContent();
+        }
+        ByteBuffer variant = encoded.get(encoding);
+        if (variant == null) {
+            variant = encode(encoding);
+            encoded.putIfAbsent(encoding, variant);
+        }
+        return variant.duplicate();
+    }
+
+    //the bytes held by the content and its compressed variants
+    public long size() {
+        long size = content.capacity();
+        for (final ByteBuffer variant : encoded.values()) {
+            size += variant.capacity();
+        }
+        return size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public String getEtag(String encoding) {
+        return encoding == null ? etag : (etag.substring(0, etag.length() - 1) + "-" + encoding + "\"");
+    }
+
+    public boolean matches(String ifNoneMatch) {
+        for (final String tag : ifNoneMatch.split(",")) {
+            final String trimmed = tag.trim();
+            final String strong = trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+            if (strong.equals("*") || strong.equals(etag) || strong.equals(getEtag(GZIP)) || strong.equals(getEtag(DEFLATE))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ByteBuffer encode(String encoding) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.capacity() / 4 + 64);
+        try (final OutputStream out = GZIP.equals(encoding) ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+            final ByteBuffer source = getContent();
+            final byte[] buf = new byte[8192];
+            while (source.hasRemaining()) {
+                final int len = Math.min(buf.length, source.remaining());
+                source.get(buf, 0, len);
+                out.write(buf, 0, len);
+            }
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private static String digest(ByteBuffer content) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("MD5");
+            md.update(content);
+            return new BigInteger(1, md.digest()).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
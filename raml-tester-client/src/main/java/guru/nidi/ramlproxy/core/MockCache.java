@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the loaded content of mock files until they change, evicting the least recently used when the byte budget is exceeded.
+ */
+class MockCache {
+    public interface Loader<T> {
+        T load(File file) throws IOException;
+    }
+
+    public static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<File, Entry> entries = new LinkedHashMap<>(16, .75f, true);
+    private long bytes;
+
+    public MockCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(File file, Loader<T> loader) throws IOException {
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        synchronized (this) {
+            final Entry entry = entries.get(file);
+            if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+                return (T) entry.value;
+            }
+        }
+        final T value = loader.load(file);
+        if (length <= maxBytes) {
+            put(file, new Entry(value, lastModified, length));
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(Collection<File> files) {
+        for (final File file : files) {
+            final Entry removed = entries.remove(file);
+            if (removed != null) {
+                bytes -= removed.size;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    //charges memory the cached value allocated after loading, e.g. compressed variants, to the budget
+    public synchronized void resize(File file, Object value, long size) {
+        final Entry entry = entries.get(file);
+        if (entry != null && entry.value == value && entry.size != size) {
+            bytes += size - entry.size;
+            entry.size = size;
+            evict();
+        }
+    }
+
+    private synchronized void put(File file, Entry entry) {
+        final Entry old = entries.put(file, entry);
+        bytes += entry.size - (old == null ? 0 : old.size);
+        evict();
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<File, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().getValue().size;
+            it.remove();
+        }
+    }
+
+    private static class Entry {
+        final Object value;
+        final long lastModified;
+        final long length;
+        long size;
+
+        Entry(Object value, long lastModified, long length) {
+            this.value = value;
+            this.lastModified = lastModified;
+            this.length = length;
+            size = length;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory image of the mock directory, so that requests can be resolved without listing directories.
+ * Directories are keyed by their absolute, normalized path.
+ */
+class MockIndex {
+    private final Map<File, Map<String, List<File>>> dirs = new ConcurrentHashMap<>();
+    private final Set<String> extensions;
+
+    public MockIndex(File mockDir, Set<String> extensions) {
+        this.extensions = extensions;
+        scan(normalize(mockDir), new HashSet<File>(), new ArrayList<File>());
+    }
+
+    public Set<File> getDirs() {
+        return dirs.keySet();
+    }
+
+    //rescan a single directory, returns the directories that were not indexed before
+    public List<File> update(File dir) {
+        dir = normalize(dir);
+        final List<File> added = new ArrayList<>();
+        final File[] entries = dir.listFiles();
+        if (entries == null) {
+            remove(dir);
+            return added;
+        }
+        final Map<String, List<File>> files = new HashMap<>();
+        for (final File entry : entries) {
+            if (entry.isDirectory()) {
+                if (!dirs.containsKey(entry)) {
+                    scan(entry, new HashSet<File>(), added);
+                }
+            } else {
+                addFile(files, entry);
+            }
+        }
+        dirs.put(dir, files);
+        for (final File indexed : dirs.keySet()) {
+            if (dir.equals(indexed.getParentFile()) && !indexed.isDirectory()) {
+                remove(indexed);
+            }
+        }
+        return added;
+    }
+
+    private void remove(File dir) {
+        final String prefix = dir.getPath() + File.separator;
+        for (final Iterator<File> it = dirs.keySet().iterator(); it.hasNext(); ) {
+            final File indexed = it.next();
+            if (indexed.equals(dir) || indexed.getPath().startsWith(prefix)) {
+                it.remove();
+            }
+        }
+    }
+
+    private void scan(File dir, Set<File> parents, List<File> scanned) {
+        final File[] entries = dir.listFiles();
+        final File canonical = canonical(dir);
+        if (entries == null || !parents.add(canonical)) {
+            return;
+        }
+        final Map<String, List<File>> files = new HashMap<>();
+        for (final File entry : entries) {
+            if (entry.isDirectory()) {
+                scan(entry, parents, scanned);
+            } else {
+                addFile(files, entry);
+            }
+        }
+        dirs.put(dir, files);
+        scanned.add(dir);
+        parents.remove(canonical);
+    }
+
+    private void addFile(Map<String, List<File>> files, File file) {
+        final String fileName = file.getName();
+        final int dotPos = fileName.lastIndexOf('.');
+        if (dotPos > 0 && extensions.contains(fileName.substring(dotPos + 1))) {
+            final String name = fileName.substring(0, dotPos);
+            List<File> candidates = files.get(name);
+            if (candidates == null) {
+                candidates = new ArrayList<>(1);
+                files.put(name, candidates);
+            }
+            candidates.add(file);
+        }
+    }
+
+    //absolute and without '.', '..' or empty segments, but symlinks are kept as they are
+    static File normalize(File file) {
+        return file.toPath().toAbsolutePath().normalize().toFile();
+    }
+
+    private static File canonical(File dir) {
+        try {
+            return dir.getCanonicalFile();
+        } catch (IOException e) {
+            return dir.getAbsoluteFile();
+        }
+    }
+
+    //null if there is no or more than one file with the name and a known extension
+    public File findFile(File dir, String name) {
+        final Map<String, List<File>> files = dirs.get(normalize(dir));
+        if (files == null) {
+            return null;
+        }
+        final List<File> candidates = files.get(name);
+        return candidates == null || candidates.size() != 1 ? null : candidates.get(0);
+    }
+}
@@ -16,6 +16,7 @@
 package guru.nidi.ramlproxy.core;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.jetty.server.HttpOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,13 +25,25 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.*;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class MockServlet extends HttpServlet {
     private final static Logger log = LoggerFactory.getLogger(MockServlet.class);
     private final static Map<String, String> EXTENSION_MIME_TYPE = new HashMap<>();
+    private final static int MIN_COMPRESS_SIZE = 256;
+    //set on requests answered with a 304 by the mock, these are not validated
+    static final String NOT_MODIFIED_ATTRIBUTE = MockServlet.class.getName() + ".notModified";
 
     static {
         EXTENSION_MIME_TYPE.put("json", "application/json");
@@ -39,41 +52,201 @@ public class MockServlet extends HttpServlet {
     }
 
     private final ObjectMapper mapper = new ObjectMapper();
+    private final MockCache cache = new MockCache(MockCache.DEFAULT_MAX_BYTES);
+    private final MockCache.Loader<MockBody> bodyLoader = new MockCache.Loader<MockBody>() {
+        @Override
+        public MockBody load(File file) throws IOException {
+            return new MockBody(readContent(file), mineType(file), file.lastModified());
+        }
+    };
+    private final MockCache.Loader<ReponseMetaData> metaLoader = new MockCache.Loader<ReponseMetaData>() {
+        @Override
+        public ReponseMetaData load(File file) throws IOException {
+            return new ReponseMetaData(mapper.readValue(file, Map.class));
+        }
+    };
     private final File mockDir;
+    private final RamlProxyServer server;
+    private volatile MockIndex index;
+    private volatile MockWatcher watcher;
 
     public MockServlet(File mockDir) {
-        this.mockDir = mockDir;
+        this(mockDir, null);
+    }
+
+    public MockServlet(File mockDir, RamlProxyServer server) {
+        this.mockDir = MockIndex.normalize(mockDir);
+        this.server = server;
     }
 
     @Override
     public void init() throws ServletException {
         super.init();
+        reindex();
+        try {
+            watcher = new MockWatcher(index.getDirs(), new MockWatcher.Listener() {
+                @Override
+                public void changed(Set<File> dirs, Set<File> files) {
+                    mockFilesChanged(dirs, files);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Not watching mock directory for changes: " + e);
+        }
         log.info("Mock started");
     }
 
+    @Override
+    public void destroy() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                log.warn("Problem closing mock directory watcher: " + e);
+            }
+        }
+        super.destroy();
+    }
+
+    public void reindex() {
+        index = new MockIndex(mockDir, EXTENSION_MIME_TYPE.keySet());
+    }
+
+    private void mockFilesChanged(Set<File> dirs, Set<File> files) {
+        if (dirs == null) {
+            cache.clear();
+            reindex();
+            watcher.register(index.getDirs());
+        } else {
+            cache.invalidate(files);
+            for (final File dir : dirs) {
+                final List<File> added = index.update(dir);
+                watcher.register(added);
+                //files created before the new directories were watched
+                for (final File addedDir : added) {
+                    index.update(addedDir);
+                }
+            }
+        }
+        log.debug("Mock files changed: {}", files);
+    }
+
     @Override
     protected void service(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
         final String pathInfo = req.getPathInfo();
         final int pos = pathInfo.lastIndexOf('/');
         final String path = pathInfo.substring(1, pos + 1);
         final String name = pathInfo.substring(pos + 1);
-        final File targetDir = new File(mockDir, path);
+        final File targetDir = MockIndex.normalize(new File(mockDir, path));
         final File file = findFileOrParent(targetDir, name, req.getMethod());
         CommandDecorators.ALLOW_ORIGIN.set(req, res);
         if (file == null) {
             res.sendError(HttpServletResponse.SC_NOT_FOUND, "No or multiple file '" + name + "' found in directory '" + targetDir.getAbsolutePath() + "'");
             return;
         }
-        handleMeta(req, res, file.getParentFile(), file.getName());
-        res.setContentLength((int) file.length());
-        res.setContentType(mineType(file));
-        final ServletOutputStream out = res.getOutputStream();
-        try (final InputStream in = new FileInputStream(file)) {
-            copy(in, out);
+        final MockBody body;
+        try {
+            body = cache.get(file, bodyLoader);
         } catch (IOException e) {
             res.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Problem delivering file '" + file.getAbsolutePath() + "': " + e);
+            return;
+        }
+        handleMeta(req, res, file.getParentFile(), file.getName());
+        res.setContentType(body.getContentType());
+        final String encoding = acceptedEncoding(req, body.getContent().remaining());
+        if (res.getStatus() == HttpServletResponse.SC_OK && ("GET".equals(req.getMethod()) || "HEAD".equals(req.getMethod()))) {
+            res.setHeader("ETag", body.getEtag(encoding));
+            if (body.getLastModified() > 0) {
+                res.setDateHeader("Last-Modified", body.getLastModified());
+            }
+            if (isNotModified(req, body)) {
+                req.setAttribute(NOT_MODIFIED_ATTRIBUTE, true);
+                res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        final ByteBuffer content = body.getContent(encoding);
+        //throttled by what is actually sent, the request is dispatched again after the transfer time and starts over
+        if (server != null && server.throttle(req, "HEAD".equals(req.getMethod()) ? 0 : content.remaining())) {
+            res.reset();
+            return;
+        }
+        if (encoding != null) {
+            cache.resize(file, body, body.size());
+            res.setHeader("Content-Encoding", encoding);
+            res.addHeader("Vary", "Accept-Encoding");
+        }
+        res.setContentLength(content.remaining());
+        send(res, content);
+    }
+
+    private boolean isNotModified(HttpServletRequest req, MockBody body) {
+        final String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return body.matches(ifNoneMatch);
+        }
+        try {
+            final long ifModifiedSince = req.getDateHeader("If-Modified-Since");
+            return ifModifiedSince >= 0 && body.getLastModified() > 0 && body.getLastModified() / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    //gzip is preferred over deflate, small bodies are not compressed
+    private String acceptedEncoding(HttpServletRequest req, int length) {
+        final String accept = req.getHeader("Accept-Encoding");
+        if (accept == null || length < MIN_COMPRESS_SIZE) {
+            return null;
+        }
+        String encoding = null;
+        for (final String part : accept.split(",")) {
+            final String[] sub = part.split(";");
+            final String coding = sub[0].trim().toLowerCase(Locale.ENGLISH);
+            if (sub.length > 1 && sub[1].trim().matches("q=0(\\.0*)?")) {
+                continue;
+            }
+            if (coding.equals(MockBody.GZIP)) {
+                return MockBody.GZIP;
+            }
+            if (coding.equals(MockBody.DEFLATE)) {
+                encoding = MockBody.DEFLATE;
+            }
+        }
+        return encoding;
+    }
+
+    private void send(HttpServletResponse res, ByteBuffer content) throws IOException {
+        final ServletOutputStream out = res.getOutputStream();
+        if (out instanceof HttpOutput) {
+            //only if the response is not captured for validation, i.e. its content type is skipped with -k
+            //let jetty write the buffer directly
+            ((HttpOutput) out).sendContent(content);
+        } else {
+            if (content.hasArray()) {
+                out.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+            } else {
+                final WritableByteChannel channel = Channels.newChannel(out);
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+            }
+            out.flush();
+        }
+    }
+
+    //not mapped: mock files are edited while the server runs, a cached mapping would change under its ETag or fail when truncated
+    private ByteBuffer readContent(File file) throws IOException {
+        try (final FileChannel channel = new FileInputStream(file).getChannel()) {
+            final long size = channel.size();
+            final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            int read = 0;
+            while (buffer.hasRemaining() && read >= 0) {
+                read = channel.read(buffer);
+            }
+            buffer.flip();
+            return buffer;
         }
-        out.flush();
     }
 
     private File findFileOrParent(File targetDir, String name, String method) {
@@ -93,48 +266,21 @@ public class MockServlet extends HttpServlet {
         final File metaFile = findFile(targetDir, "META-" + name, req.getMethod());
         if (metaFile != null) {
             try {
-                final ReponseMetaData meta = new ReponseMetaData(mapper.readValue(metaFile, Map.class));
-                meta.apply(res);
+                cache.get(metaFile, metaLoader).apply(res);
             } catch (Exception e) {
                 log.warn("Problem applying meta data for '" + targetDir + "/" + name + "': " + e);
             }
         }
     }
 
-    private void copy(InputStream in, OutputStream out) throws IOException {
-        final byte[] buf = new byte[4096];
-        int read;
-        while ((read = in.read(buf)) > 0) {
-            out.write(buf, 0, read);
-        }
-    }
-
     private File findFile(File dir, String name, String method) {
         final File methodFile = findFile(dir, method + "-" + name);
         final File generalFile = findFile(dir, name);
         return methodFile == null ? generalFile : methodFile;
     }
 
-    private File findFile(File dir, final String name) {
-        final File[] files = dir.listFiles();
-        if (files == null) {
-            return null;
-        }
-        File res = null;
-        for (final File file : files) {
-            final String fileName = file.getName();
-            final int dotPos = fileName.lastIndexOf('.');
-            if (dotPos > 0 && fileName.substring(0, dotPos).equals(name)) {
-                if (EXTENSION_MIME_TYPE.containsKey(fileName.substring(dotPos + 1))) {
-                    if (res == null) {
-                        res = file;
-                    } else {
-                        return null;
-                    }
-                }
-            }
-        }
-        return res;
+    private File findFile(File dir, String name) {
+        return index.findFile(dir, name);
     }
 
     private String mineType(File file) {
@@ -142,7 +288,4 @@ public class MockServlet extends HttpServlet {
         final int dotPos = fileName.lastIndexOf('.');
         return EXTENSION_MIME_TYPE.get(fileName.substring(dotPos + 1));
     }
-
 }
-
-
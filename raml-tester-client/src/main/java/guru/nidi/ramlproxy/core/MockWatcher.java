@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the mock directory and reports the changed directories and files in batches.
+ * Events arriving within {@link #QUIET_PERIOD} of each other are combined, up to {@link #MAX_DELAY}.
+ */
+class MockWatcher implements AutoCloseable {
+    public interface Listener {
+        //dirs is null if events have been lost and everything must be rescanned
+        void changed(Set<File> dirs, Set<File> files);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(MockWatcher.class);
+    private static final long QUIET_PERIOD = 100;
+    private static final long MAX_DELAY = 1000;
+
+    private final WatchService watchService;
+    private final Listener listener;
+
+    public MockWatcher(Collection<File> dirs, Listener listener) throws IOException {
+        this.listener = listener;
+        watchService = FileSystems.getDefault().newWatchService();
+        register(dirs);
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watchLoop();
+            }
+        }, "raml-mock-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void register(Collection<File> dirs) {
+        for (final File dir : dirs) {
+            try {
+                dir.toPath().register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+            } catch (IOException e) {
+                log.warn("Could not watch directory '" + dir + "': " + e);
+            }
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                final long start = System.currentTimeMillis();
+                final Set<File> dirs = new HashSet<>();
+                final Set<File> files = new HashSet<>();
+                boolean overflow = false;
+                do {
+                    overflow |= collect(key, dirs, files);
+                } while (System.currentTimeMillis() - start < MAX_DELAY && (key = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS)) != null);
+                try {
+                    listener.changed(overflow ? null : dirs, files);
+                } catch (Exception e) {
+                    log.error("Problem updating mock files", e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //stopped
+        }
+    }
+
+    private boolean collect(WatchKey key, Set<File> dirs, Set<File> files) {
+        final Path dir = (Path) key.watchable();
+        boolean overflow = false;
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+            } else {
+                files.add(dir.resolve((Path) event.context()).toFile());
+            }
+        }
+        dirs.add(dir.toFile());
+        key.reset();
+        return overflow;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
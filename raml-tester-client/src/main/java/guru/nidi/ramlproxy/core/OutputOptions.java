@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+public class OutputOptions {
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+    public static final OutputOptions FILE_PER_VIOLATION = new OutputOptions("", false, DEFAULT_FLUSH_INTERVAL, 0);
+
+    private final String cli;
+    private final boolean logFile;
+    private final long flushInterval;
+    private final long rotateSize;
+
+    public OutputOptions(String cli, boolean logFile, long flushInterval, long rotateSize) {
+        this.cli = cli;
+        this.logFile = logFile;
+        this.flushInterval = flushInterval;
+        this.rotateSize = rotateSize;
+    }
+
+    public boolean isLogFile() {
+        return logFile;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public long getRotateSize() {
+        return rotateSize;
+    }
+
+    public String asCli() {
+        return cli;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final OutputOptions that = (OutputOptions) o;
+
+        if (logFile != that.logFile) {
+            return false;
+        }
+        if (flushInterval != that.flushInterval) {
+            return false;
+        }
+        return rotateSize == that.rotateSize;
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (logFile ? 1 : 0);
+        result = 31 * result + (int) (flushInterval ^ (flushInterval >>> 32));
+        result = 31 * result + (int) (rotateSize ^ (rotateSize >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "OutputOptions{" +
+                "logFile=" + logFile +
+                ", flushInterval=" + flushInterval +
+                ", rotateSize=" + rotateSize +
+                '}';
+    }
+}
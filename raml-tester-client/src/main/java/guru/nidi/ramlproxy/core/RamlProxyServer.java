@@ -15,25 +15,50 @@
  */
 package guru.nidi.ramlproxy.core;
 
+import guru.nidi.ramlproxy.data.StatsDatas;
 import guru.nidi.ramlproxy.report.ReportSaver;
 import guru.nidi.ramltester.RamlDefinition;
 import guru.nidi.ramltester.core.RamlReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
 import java.net.BindException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 public abstract class RamlProxyServer implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(RamlProxyServer.class);
+    private static final String DELAYED_ATTRIBUTE = RamlProxyServer.class.getName() + ".delayed";
+    private static final String THROTTLED_ATTRIBUTE = RamlProxyServer.class.getName() + ".throttled";
 
     protected final ServerOptions options;
     private final ReportSaver saver;
+    private final ValidationQueue validationQueue;
     private final Thread shutdownHook;
+    private final LatencySimulator latency;
+    private final ScheduledExecutorService delayScheduler;
 
     public RamlProxyServer(ServerOptions options, ReportSaver saver) {
         this.options = options;
         this.saver = saver;
-        shutdownHook = shutdownHook(saver);
+        validationQueue = new ValidationQueue(options.getValidationOptions());
+        latency = new LatencySimulator(options.getLatencyOptions(), options.getMinDelay(), options.getMaxDelay());
+        delayScheduler = latency.isDelaying() || latency.isThrottling() ? Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread thread = new Thread(r, "raml-delay");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }) : null;
+        shutdownHook = shutdownHook(validationQueue, saver);
         Runtime.getRuntime().addShutdownHook(shutdownHook);
     }
 
@@ -72,23 +97,101 @@ public abstract class RamlProxyServer implements AutoCloseable {
         return options.validateRaml(ramlDefinition);
     }
 
-    public void delay() {
-        if (options.getMaxDelay() > 0) {
-            final int delay = options.getMinDelay() + (int) Math.floor(Math.random() * (1 + options.getMaxDelay() - options.getMinDelay()));
-            try {
-                Thread.sleep(delay);
-            } catch (InterruptedException e) {
-                //ignore
+    //suspends the request without blocking a thread and dispatches it again after the delay
+    //returns true if the request has been suspended, the caller must then return immediately
+    public boolean delay(HttpServletRequest request) {
+        return latency.isDelaying() && suspend(request, DELAYED_ATTRIBUTE, latency.nextDelay(request.getPathInfo()));
+    }
+
+    //like delay, but for the time it takes to send a response body of the given size
+    public boolean throttle(HttpServletRequest request, long bytes) {
+        return latency.isThrottling() && bytes > 0 && suspend(request, THROTTLED_ATTRIBUTE, latency.transferTime(bytes));
+    }
+
+    public boolean isThrottling() {
+        return latency.isThrottling();
+    }
+
+    //runs the action after the time it takes to send the given number of bytes
+    //the action runs on the single scheduler thread and must not block
+    public void throttle(long bytes, Runnable action) {
+        if (latency.isThrottling()) {
+            schedule(action, latency.transferTime(bytes));
+        } else {
+            action.run();
+        }
+    }
+
+    private boolean suspend(HttpServletRequest request, String attribute, long delay) {
+        if (request.getAttribute(attribute) != null) {
+            return false;
+        }
+        request.setAttribute(attribute, true);
+        if (!request.isAsyncSupported()) {
+            sleep(delay);
+            return false;
+        }
+        final AsyncContext async = request.startAsync();
+        async.setTimeout(0);
+        schedule(new Runnable() {
+            @Override
+            public void run() {
+                async.dispatch();
             }
+        }, delay);
+        return true;
+    }
+
+    //once closing, the action is run immediately
+    private void schedule(Runnable action, long delay) {
+        try {
+            delayScheduler.schedule(action, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            action.run();
         }
     }
 
+    private static void sleep(long delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            //ignore
+        }
+    }
+
+    public ServerOptions getOptions() {
+        return options;
+    }
+
     public ReportSaver getSaver() {
         return saver;
     }
 
+    public ValidationQueue getValidationQueue() {
+        return validationQueue;
+    }
+
+    public StatsDatas getStats() {
+        final StatsDatas stats = new StatsDatas();
+        stats.put("validation", validationQueue.getStats());
+        stats.put("reports", saver.getStats());
+        stats.put("output", saver.getOutputStats());
+        stats.put("upstream", getUpstreamStats());
+        return stats;
+    }
+
+    protected Map<String, Long> getUpstreamStats() {
+        return new LinkedHashMap<>();
+    }
+
     @Override
     public void close() throws Exception {
+        if (delayScheduler != null) {
+            //dispatch the suspended requests now instead of leaving them hanging
+            for (final Runnable pending : delayScheduler.shutdownNow()) {
+                pending.run();
+            }
+        }
         if (stop()) {
             Runtime.getRuntime().removeShutdownHook(shutdownHook);
             shutdownHook.start();
@@ -96,11 +199,18 @@ public abstract class RamlProxyServer implements AutoCloseable {
         }
     }
 
-    private static Thread shutdownHook(final ReportSaver saver) {
+    private static Thread shutdownHook(final ValidationQueue validationQueue, final ReportSaver saver) {
         final Thread thread = new Thread(new Runnable() {
             @Override
             public void run() {
+                try {
+                    validationQueue.close();
+                } catch (InterruptedException e) {
+                    //ignore
+                }
+                saver.flushOutput();
                 saver.flushUsage();
+                saver.closeOutput();
             }
         });
         thread.setDaemon(true);
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class Sampler {
+    private static final Logger log = LoggerFactory.getLogger(Sampler.class);
+    private static final int MAX_TRACKED_ACTIONS = 10000;
+    private static final String UNMATCHED = "unmatched";
+    private static final Pattern PARAMETER = Pattern.compile("\\{[^}/]+\\}");
+
+    private final SamplingOptions options;
+    private final Map<String, Pattern> resources = new LinkedHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final AtomicLong sampled = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicBoolean capWarned = new AtomicBoolean();
+    private volatile Map<String, Pattern> ramlResources = Collections.emptyMap();
+
+    public Sampler(SamplingOptions options) {
+        this.options = options;
+        for (final String resource : options.getResourceRates().keySet()) {
+            resources.put(resource, templatePattern(resource));
+        }
+    }
+
+    static Pattern templatePattern(String template) {
+        final StringBuilder regex = new StringBuilder();
+        final Matcher matcher = PARAMETER.matcher(template);
+        int pos = 0;
+        while (matcher.find()) {
+            regex.append(Pattern.quote(template.substring(pos, matcher.start()))).append("[^/]+");
+            pos = matcher.end();
+        }
+        regex.append(Pattern.quote(template.substring(pos))).append("/?");
+        return Pattern.compile(regex.toString());
+    }
+
+    //the base path of the RAML is not known here, so a resource matches the end of the request path
+    private static Pattern suffixPattern(String template) {
+        return Pattern.compile("(?:/.*)?" + templatePattern(template).pattern());
+    }
+
+    public boolean sample(HttpServletRequest request) {
+        return sample(request.getMethod(), request.getPathInfo());
+    }
+
+    boolean sample(String method, String path) {
+        final boolean sample = options.isAll() || decide(method, path == null ? "" : path);
+        (sample ? sampled : skipped).incrementAndGet();
+        return sample;
+    }
+
+    private boolean decide(String method, String path) {
+        double rate = options.getRate();
+        String resource = null;
+        for (final Map.Entry<String, Pattern> entry : resources.entrySet()) {
+            if (entry.getValue().matcher(path).matches()) {
+                resource = entry.getKey();
+                rate = options.getResourceRates().get(resource);
+                break;
+            }
+        }
+        return isFirstCalls(method, resource == null ? ramlResource(path) : resource) || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private String ramlResource(String path) {
+        if (options.getFirst() <= 0) {
+            return null;
+        }
+        for (final Map.Entry<String, Pattern> entry : ramlResources.entrySet()) {
+            if (entry.getValue().matcher(path).matches()) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    //counted per method and resource template, all requests without a resource share one count
+    private boolean isFirstCalls(String method, String resource) {
+        if (options.getFirst() <= 0) {
+            return false;
+        }
+        final String action = resource == null ? UNMATCHED : (method + " " + resource);
+        AtomicInteger count = calls.get(action);
+        if (count == null) {
+            if (calls.size() >= MAX_TRACKED_ACTIONS) {
+                if (capWarned.compareAndSet(false, true)) {
+                    log.warn("Tracking the first calls of {} actions, further actions are only sampled by rate", MAX_TRACKED_ACTIONS);
+                }
+                return false;
+            }
+            final AtomicInteger newCount = new AtomicInteger();
+            count = calls.putIfAbsent(action, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        return count.get() < options.getFirst() && count.incrementAndGet() <= options.getFirst();
+    }
+
+    //the resources of a newly loaded RAML, the more specific a resource is, the earlier it is tried
+    public void reset(Collection<String> ramlResources) {
+        final List<String> sorted = new ArrayList<>(ramlResources);
+        Collections.sort(sorted, new Comparator<String>() {
+            @Override
+            public int compare(String r1, String r2) {
+                final int bySegments = Integer.compare(segments(r2), segments(r1));
+                return bySegments != 0 ? bySegments : Integer.compare(literalLength(r2), literalLength(r1));
+            }
+        });
+        final Map<String, Pattern> patterns = new LinkedHashMap<>();
+        for (final String resource : sorted) {
+            patterns.put(resource, suffixPattern(resource));
+        }
+        this.ramlResources = patterns;
+        calls.clear();
+        capWarned.set(false);
+    }
+
+    private static int literalLength(String resource) {
+        return PARAMETER.matcher(resource).replaceAll("").length();
+    }
+
+    private static int segments(String resource) {
+        int count = 0;
+        for (int i = 0; i < resource.length(); i++) {
+            if (resource.charAt(i) == '/') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public Map<String, Long> getStats() {
+        final Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("sampled", sampled.get());
+        stats.put("skipped", skipped.get());
+        return stats;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SamplingOptions {
+    public static final SamplingOptions ALL = new SamplingOptions("", 1, 0, Collections.<String, Double>emptyMap());
+
+    private final String cli;
+    private final double rate;
+    private final int first;
+    private final Map<String, Double> resourceRates;
+
+    public SamplingOptions(String cli, double rate, int first, Map<String, Double> resourceRates) {
+        this.cli = cli;
+        this.rate = rate;
+        this.first = first;
+        this.resourceRates = new LinkedHashMap<>(resourceRates);
+    }
+
+    public boolean isAll() {
+        if (rate < 1) {
+            return false;
+        }
+        for (final Double resourceRate : resourceRates.values()) {
+            if (resourceRate < 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public Map<String, Double> getResourceRates() {
+        return resourceRates;
+    }
+
+    public String asCli() {
+        return cli;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final SamplingOptions that = (SamplingOptions) o;
+
+        if (Double.compare(that.rate, rate) != 0) {
+            return false;
+        }
+        if (first != that.first) {
+            return false;
+        }
+        return resourceRates.equals(that.resourceRates);
+
+    }
+
+    @Override
+    public int hashCode() {
+        final long temp = Double.doubleToLongBits(rate);
+        int result = (int) (temp ^ (temp >>> 32));
+        result = 31 * result + first;
+        result = 31 * result + resourceRates.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SamplingOptions{" +
+                "rate=" + rate +
+                ", first=" + first +
+                ", resourceRates=" + resourceRates +
+                '}';
+    }
+}
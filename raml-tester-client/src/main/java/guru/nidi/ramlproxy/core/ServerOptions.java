@@ -36,6 +36,15 @@ public class ServerOptions {
     private final boolean asyncMode;
     private final int minDelay, maxDelay;
     private final ValidatorConfigurator validatorConfigurator;
+    private final ValidationOptions validationOptions;
+    private final SamplingOptions samplingOptions;
+    private final StorageOptions storageOptions;
+    private final OutputOptions outputOptions;
+    private final WriterOptions writerOptions;
+    private final LatencyOptions latencyOptions;
+    private final TuningOptions tuningOptions;
+    private final UpstreamOptions upstreamOptions;
+    private final CaptureOptions captureOptions;
 
     public ServerOptions(int port, String targetOrMockDir, String ramlUri, String baseUri) {
         this(port, target(targetOrMockDir), mockDir(targetOrMockDir), ramlUri, baseUri, null, null, false, false, 0, 0, ValidatorConfigurator.NONE);
@@ -46,6 +55,11 @@ public class ServerOptions {
     }
 
     public ServerOptions(int port, String target, File mockDir, String ramlUri, String baseUri, File saveDir, ReportFormat fileFormat, boolean ignoreXheaders, boolean asyncMode, int minDelay, int maxDelay, ValidatorConfigurator validatorConfigurator) {
+        this(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator, ValidationOptions.SYNC, SamplingOptions.ALL, StorageOptions.UNLIMITED, OutputOptions.FILE_PER_VIOLATION, WriterOptions.SYNC, LatencyOptions.UNIFORM, TuningOptions.DEFAULT, UpstreamOptions.DEFAULT, CaptureOptions.UNLIMITED);
+    }
+
+    private ServerOptions(int port, String target, File mockDir, String ramlUri, String baseUri, File saveDir, ReportFormat fileFormat, boolean ignoreXheaders, boolean asyncMode, int minDelay, int maxDelay, ValidatorConfigurator validatorConfigurator,
+                          ValidationOptions validationOptions, SamplingOptions samplingOptions, StorageOptions storageOptions, OutputOptions outputOptions, WriterOptions writerOptions, LatencyOptions latencyOptions, TuningOptions tuningOptions, UpstreamOptions upstreamOptions, CaptureOptions captureOptions) {
         this.port = port;
         this.target = target;
         this.mockDir = mockDir;
@@ -58,10 +72,65 @@ public class ServerOptions {
         this.minDelay = minDelay;
         this.maxDelay = maxDelay;
         this.validatorConfigurator = validatorConfigurator;
+        this.validationOptions = validationOptions;
+        this.samplingOptions = samplingOptions;
+        this.storageOptions = storageOptions;
+        this.outputOptions = outputOptions;
+        this.writerOptions = writerOptions;
+        this.latencyOptions = latencyOptions;
+        this.tuningOptions = tuningOptions;
+        this.upstreamOptions = upstreamOptions;
+        this.captureOptions = captureOptions;
     }
 
     public ServerOptions withoutAsyncMode() {
-        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, false, minDelay, maxDelay, validatorConfigurator);
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, false, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
+    }
+
+    public ServerOptions withValidationOptions(ValidationOptions validationOptions) {
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
+    }
+
+    public ServerOptions withSamplingOptions(SamplingOptions samplingOptions) {
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
+    }
+
+    public ServerOptions withStorageOptions(StorageOptions storageOptions) {
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
+    }
+
+    public ServerOptions withOutputOptions(OutputOptions outputOptions) {
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
+    }
+
+    public ServerOptions withWriterOptions(WriterOptions writerOptions) {
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
+    }
+
+    public ServerOptions withLatencyOptions(LatencyOptions latencyOptions) {
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
+    }
+
+    public ServerOptions withTuningOptions(TuningOptions tuningOptions) {
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
+    }
+
+    public ServerOptions withUpstreamOptions(UpstreamOptions upstreamOptions) {
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
+    }
+
+    public ServerOptions withCaptureOptions(CaptureOptions captureOptions) {
+        return new ServerOptions(port, target, mockDir, ramlUri, baseUri, saveDir, fileFormat, ignoreXheaders, asyncMode, minDelay, maxDelay, validatorConfigurator,
+                validationOptions, samplingOptions, storageOptions, outputOptions, writerOptions, latencyOptions, tuningOptions, upstreamOptions, captureOptions);
     }
 
     private static String target(String targetOrMockDir) {
@@ -84,8 +153,21 @@ public class ServerOptions {
                 (ignoreXheaders ? " -i" : "") +
                 (asyncMode ? " -a" : "") +
                 (" -d" + minDelay + "-" + maxDelay) +
-                (" " + validatorConfigurator.asCli());
-        return Arrays.asList(args.split(" "));
+                (" " + validatorConfigurator.asCli()) +
+                optionalCli(validationOptions.asCli()) +
+                optionalCli(samplingOptions.asCli()) +
+                optionalCli(storageOptions.asCli()) +
+                optionalCli(outputOptions.asCli()) +
+                optionalCli(writerOptions.asCli()) +
+                optionalCli(latencyOptions.asCli()) +
+                optionalCli(tuningOptions.asCli()) +
+                optionalCli(upstreamOptions.asCli()) +
+                optionalCli(captureOptions.asCli());
+        return Arrays.asList(args.trim().split(" +"));
+    }
+
+    private static String optionalCli(String cli) {
+        return cli.length() == 0 ? "" : (" " + cli);
     }
 
     public int getPort() {
@@ -154,6 +236,42 @@ public class ServerOptions {
         return validatorConfigurator;
     }
 
+    public ValidationOptions getValidationOptions() {
+        return validationOptions;
+    }
+
+    public SamplingOptions getSamplingOptions() {
+        return samplingOptions;
+    }
+
+    public StorageOptions getStorageOptions() {
+        return storageOptions;
+    }
+
+    public OutputOptions getOutputOptions() {
+        return outputOptions;
+    }
+
+    public WriterOptions getWriterOptions() {
+        return writerOptions;
+    }
+
+    public LatencyOptions getLatencyOptions() {
+        return latencyOptions;
+    }
+
+    public TuningOptions getTuningOptions() {
+        return tuningOptions;
+    }
+
+    public UpstreamOptions getUpstreamOptions() {
+        return upstreamOptions;
+    }
+
+    public CaptureOptions getCaptureOptions() {
+        return captureOptions;
+    }
+
     public RamlDefinition fetchRamlDefinition() {
         return RamlLoaders.fromFile(".")
                 .load(getRamlUri())
@@ -180,6 +298,15 @@ public class ServerOptions {
                 ", minDelay=" + minDelay +
                 ", maxDelay=" + maxDelay +
                 ", validatorConfigurator=" + validatorConfigurator +
+                ", validationOptions=" + validationOptions +
+                ", samplingOptions=" + samplingOptions +
+                ", storageOptions=" + storageOptions +
+                ", outputOptions=" + outputOptions +
+                ", writerOptions=" + writerOptions +
+                ", latencyOptions=" + latencyOptions +
+                ", tuningOptions=" + tuningOptions +
+                ", upstreamOptions=" + upstreamOptions +
+                ", captureOptions=" + captureOptions +
                 '}';
     }
 
@@ -227,7 +354,34 @@ public class ServerOptions {
         if (fileFormat != that.fileFormat) {
             return false;
         }
-        return !(validatorConfigurator != null ? !validatorConfigurator.equals(that.validatorConfigurator) : that.validatorConfigurator != null);
+        if (validatorConfigurator != null ? !validatorConfigurator.equals(that.validatorConfigurator) : that.validatorConfigurator != null) {
+            return false;
+        }
+        if (validationOptions != null ? !validationOptions.equals(that.validationOptions) : that.validationOptions != null) {
+            return false;
+        }
+        if (samplingOptions != null ? !samplingOptions.equals(that.samplingOptions) : that.samplingOptions != null) {
+            return false;
+        }
+        if (storageOptions != null ? !storageOptions.equals(that.storageOptions) : that.storageOptions != null) {
+            return false;
+        }
+        if (outputOptions != null ? !outputOptions.equals(that.outputOptions) : that.outputOptions != null) {
+            return false;
+        }
+        if (writerOptions != null ? !writerOptions.equals(that.writerOptions) : that.writerOptions != null) {
+            return false;
+        }
+        if (latencyOptions != null ? !latencyOptions.equals(that.latencyOptions) : that.latencyOptions != null) {
+            return false;
+        }
+        if (tuningOptions != null ? !tuningOptions.equals(that.tuningOptions) : that.tuningOptions != null) {
+            return false;
+        }
+        if (upstreamOptions != null ? !upstreamOptions.equals(that.upstreamOptions) : that.upstreamOptions != null) {
+            return false;
+        }
+        return !(captureOptions != null ? !captureOptions.equals(that.captureOptions) : that.captureOptions != null);
 
     }
 
@@ -245,6 +399,15 @@ public class ServerOptions {
         result = 31 * result + minDelay;
         result = 31 * result + maxDelay;
         result = 31 * result + (validatorConfigurator != null ? validatorConfigurator.hashCode() : 0);
+        result = 31 * result + (validationOptions != null ? validationOptions.hashCode() : 0);
+        result = 31 * result + (samplingOptions != null ? samplingOptions.hashCode() : 0);
+        result = 31 * result + (storageOptions != null ? storageOptions.hashCode() : 0);
+        result = 31 * result + (outputOptions != null ? outputOptions.hashCode() : 0);
+        result = 31 * result + (writerOptions != null ? writerOptions.hashCode() : 0);
+        result = 31 * result + (latencyOptions != null ? latencyOptions.hashCode() : 0);
+        result = 31 * result + (tuningOptions != null ? tuningOptions.hashCode() : 0);
+        result = 31 * result + (upstreamOptions != null ? upstreamOptions.hashCode() : 0);
+        result = 31 * result + (captureOptions != null ? captureOptions.hashCode() : 0);
         return result;
     }
 
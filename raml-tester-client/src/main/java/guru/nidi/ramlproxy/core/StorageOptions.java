@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+public class StorageOptions {
+    public static final StorageOptions UNLIMITED = new StorageOptions("", 0, 0);
+
+    private final String cli;
+    private final int maxReports;
+    private final long maxBytes;
+
+    public StorageOptions(String cli, int maxReports, long maxBytes) {
+        this.cli = cli;
+        this.maxReports = maxReports;
+        this.maxBytes = maxBytes;
+    }
+
+    public int getMaxReports() {
+        return maxReports;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public String asCli() {
+        return cli;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final StorageOptions that = (StorageOptions) o;
+
+        if (maxReports != that.maxReports) {
+            return false;
+        }
+        return maxBytes == that.maxBytes;
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxReports;
+        result = 31 * result + (int) (maxBytes ^ (maxBytes >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageOptions{" +
+                "maxReports=" + maxReports +
+                ", maxBytes=" + maxBytes +
+                '}';
+    }
+}
@@ -15,9 +15,14 @@
  */
 package guru.nidi.ramlproxy.core;
 
+import guru.nidi.ramlproxy.data.StatsDatas;
+import guru.nidi.ramlproxy.report.CapturingServletRamlResponse;
 import guru.nidi.ramlproxy.report.ReportSaver;
+import guru.nidi.ramlproxy.report.SavableServletRamlRequest;
+import guru.nidi.ramlproxy.report.SavableServletRamlResponse;
 import guru.nidi.ramltester.RamlDefinition;
 import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.core.UsageBuilder;
 import guru.nidi.ramltester.model.internal.RamlApi;
 import guru.nidi.ramltester.servlet.ServletRamlRequest;
 import guru.nidi.ramltester.servlet.ServletRamlResponse;
@@ -31,6 +36,8 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collection;
+import java.util.Collections;
 
 public class TesterFilter implements Filter, CommandContext {
     private final static Logger log = LoggerFactory.getLogger(TesterFilter.class);
@@ -38,15 +45,21 @@ public class TesterFilter implements Filter, CommandContext {
 
     private final RamlProxyServer proxy;
     private final ReportSaver saver;
+    private final ValidationQueue validationQueue;
+    private final Sampler sampler;
 
-    private RamlDefinition ramlDefinition;
+    private volatile RamlDefinition ramlDefinition;
 
     public TesterFilter(RamlProxyServer proxy, ReportSaver saver, RamlDefinition ramlDefinition) {
         this.proxy = proxy;
         this.saver = saver;
+        this.validationQueue = proxy.getValidationQueue();
+        this.sampler = new Sampler(proxy.getOptions().getSamplingOptions());
         this.ramlDefinition = ramlDefinition;
         if (ramlDefinition == null) {
             reloadRamlDefinition();
+        } else {
+            resetSampler();
         }
     }
 
@@ -58,12 +71,15 @@ public class TesterFilter implements Filter, CommandContext {
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
         final HttpServletRequest servletReq = (HttpServletRequest) request;
         final HttpServletResponse servletRes = (HttpServletResponse) response;
-        if (!handleCommands(servletReq, servletRes)) {
+        if (!handleCommands(servletReq, servletRes) && !delay(servletReq)) {
             final ServletRamlRequest ramlReq = new ServletRamlRequest(servletReq);
-            final ServletRamlResponse ramlRes = new ServletRamlResponse(servletRes);
-            delay();
+            final ServletRamlResponse ramlRes = ramlResponse(servletRes);
             chain.doFilter(ramlReq, ramlRes);
-            test(ramlReq, ramlRes);
+            //if suspended, the request is validated when it is dispatched again
+            //a 304 of the mock is no response of the API, the RAML need not define it
+            if (!ramlReq.isAsyncStarted() && ramlReq.getAttribute(MockServlet.NOT_MODIFIED_ATTRIBUTE) == null) {
+                validate(ramlReq, ramlRes);
+            }
         }
     }
 
@@ -71,9 +87,76 @@ public class TesterFilter implements Filter, CommandContext {
     public void destroy() {
     }
 
+    public ServletRamlResponse ramlResponse(HttpServletResponse response) {
+        final CaptureOptions capture = proxy.getOptions().getCaptureOptions();
+        return new CapturingServletRamlResponse(response, capture.getMaxBytes(), capture.getSkipTypes());
+    }
+
+    public boolean isAsyncValidation() {
+        return validationQueue.isAsync();
+    }
+
+    public void awaitValidationCapacity() {
+        try {
+            validationQueue.awaitCapacity();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void validate(ServletRamlRequest request, ServletRamlResponse response) {
+        submitValidation(prepareValidation(request, response), true);
+    }
+
+    public Runnable prepareValidation(ServletRamlRequest request, ServletRamlResponse response) {
+        final boolean sampled = sampler.sample(request);
+        final String jsonError = response instanceof CapturingServletRamlResponse ? ((CapturingServletRamlResponse) response).getJsonError() : null;
+        final ServletRamlRequest req;
+        final ServletRamlResponse res;
+        if (!sampled) {
+            //without bodies, no schema validation is done, but usage is still tracked
+            //resources, actions, parameters and headers are still matched, raml-tester only records usage while testing
+            req = new SavableServletRamlRequest(request, false);
+            res = new SavableServletRamlResponse(response, false);
+        } else if (CapturingServletRamlResponse.captureOf(response) != CapturingServletRamlResponse.Capture.FULL) {
+            //an incomplete body would give wrong schema violations, so only status and headers are validated
+            req = validationQueue.isAsync() ? SavableServletRamlRequest.of(request) : request;
+            res = new SavableServletRamlResponse(response, false);
+        } else if (validationQueue.isAsync()) {
+            req = SavableServletRamlRequest.of(request);
+            res = SavableServletRamlResponse.of(response);
+        } else {
+            req = request;
+            res = response;
+        }
+        final long maxBytes = proxy.getOptions().getCaptureOptions().getMaxBytes();
+        return new Runnable() {
+            @Override
+            public void run() {
+                if (sampled) {
+                    //decoded only here, so it does not run on the request path or for dropped validations
+                    test(req, SavableServletRamlResponse.decoded(res, maxBytes), jsonError);
+                } else {
+                    testUsage(req, res);
+                }
+            }
+        };
+    }
+
+    public void submitValidation(Runnable validation, boolean mayBlock) {
+        validationQueue.submit(validation, mayBlock);
+    }
+
     public void test(ServletRamlRequest request, ServletRamlResponse response) {
+        test(request, response, null);
+    }
+
+    private void test(ServletRamlRequest request, ServletRamlResponse response, String jsonError) {
         try {
             final RamlReport report = ramlDefinition.testAgainst(request, response);
+            if (jsonError != null) {
+                report.getResponseViolations().add(new Message("checking.exception"), "Response body is not well-formed json: " + jsonError);
+            }
             saver.addReport(report, request, response);
         } catch (Exception e) {
             try {
@@ -85,6 +168,14 @@ public class TesterFilter implements Filter, CommandContext {
         }
     }
 
+    private void testUsage(ServletRamlRequest request, ServletRamlResponse response) {
+        try {
+            saver.addUsage(ramlDefinition.testAgainst(request, response));
+        } catch (Exception e) {
+            log.debug("Problem tracking usage", e);
+        }
+    }
+
     private RamlReport fromException(RamlApi raml, Exception cause) {
         final RamlReport report = new RamlReport(raml);
         final StringWriter out = new StringWriter();
@@ -104,8 +195,8 @@ public class TesterFilter implements Filter, CommandContext {
         if (command == null) {
             log.info("Ignoring unknown command '" + commandStr + "'");
         } else {
-            command.apply(response);
-            command.execute(this, writer);
+            command.apply(this, response);
+            command.execute(this, request, writer);
         }
         if (CommandDecorators.CLEAR_REPORTS.isSet(request)) {
             Command.CLEAR_REPORTS.execute(this, writer);
@@ -117,13 +208,34 @@ public class TesterFilter implements Filter, CommandContext {
         return true;
     }
 
-    public void delay() {
-        proxy.delay();
+    public boolean delay(HttpServletRequest request) {
+        return proxy.delay(request);
+    }
+
+    public boolean isThrottling() {
+        return proxy.isThrottling();
+    }
+
+    public void throttle(long bytes, Runnable action) {
+        proxy.throttle(bytes, action);
     }
 
     @Override
     public void reloadRamlDefinition() {
         ramlDefinition = proxy.fetchRamlDefinition();
+        resetSampler();
+    }
+
+    //a RAML without any usage lists all its resources as unused
+    private void resetSampler() {
+        Collection<String> resources;
+        try {
+            resources = UsageBuilder.usage(ramlDefinition.getRaml(), Collections.<RamlReport>emptyList()).getUnusedResources();
+        } catch (RuntimeException e) {
+            log.warn("Problem reading the resources of the RAML, first calls are not counted per resource", e);
+            resources = Collections.emptyList();
+        }
+        sampler.reset(resources);
     }
 
     @Override
@@ -140,4 +252,11 @@ public class TesterFilter implements Filter, CommandContext {
     public ReportSaver getSaver() {
         return saver;
     }
+
+    @Override
+    public StatsDatas getStats() {
+        final StatsDatas stats = proxy.getStats();
+        stats.put("sampling", sampler.getStats());
+        return stats;
+    }
 }
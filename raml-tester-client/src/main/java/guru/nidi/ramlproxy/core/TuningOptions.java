@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+public class TuningOptions {
+    public static final TuningOptions DEFAULT = new TuningOptions("", 0, 0, 0, -1, -1, 0, 0, false);
+
+    private final String cli;
+    private final int minThreads;
+    private final int maxThreads;
+    private final int maxQueued;
+    private final int acceptors;
+    private final int selectors;
+    private final int acceptQueue;
+    private final long idleTimeout;
+    private final boolean virtualThreads;
+
+    //0 (-1 for acceptors and selectors) means to use the jetty default
+    public TuningOptions(String cli, int minThreads, int maxThreads, int maxQueued, int acceptors, int selectors, int acceptQueue, long idleTimeout, boolean virtualThreads) {
+        this.cli = cli;
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.maxQueued = maxQueued;
+        this.acceptors = acceptors;
+        this.selectors = selectors;
+        this.acceptQueue = acceptQueue;
+        this.idleTimeout = idleTimeout;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public boolean isDefault() {
+        return equals(DEFAULT);
+    }
+
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public int getAcceptors() {
+        return acceptors;
+    }
+
+    public int getSelectors() {
+        return selectors;
+    }
+
+    public int getAcceptQueue() {
+        return acceptQueue;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public String asCli() {
+        return cli;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final TuningOptions that = (TuningOptions) o;
+
+        if (minThreads != that.minThreads) {
+            return false;
+        }
+        if (maxThreads != that.maxThreads) {
+            return false;
+        }
+        if (maxQueued != that.maxQueued) {
+            return false;
+        }
+        if (acceptors != that.acceptors) {
+            return false;
+        }
+        if (selectors != that.selectors) {
+            return false;
+        }
+        if (acceptQueue != that.acceptQueue) {
+            return false;
+        }
+        if (idleTimeout != that.idleTimeout) {
+            return false;
+        }
+        return virtualThreads == that.virtualThreads;
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = minThreads;
+        result = 31 * result + maxThreads;
+        result = 31 * result + maxQueued;
+        result = 31 * result + acceptors;
+        result = 31 * result + selectors;
+        result = 31 * result + acceptQueue;
+        result = 31 * result + (int) (idleTimeout ^ (idleTimeout >>> 32));
+        result = 31 * result + (virtualThreads ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TuningOptions{" +
+                "minThreads=" + minThreads +
+                ", maxThreads=" + maxThreads +
+                ", maxQueued=" + maxQueued +
+                ", acceptors=" + acceptors +
+                ", selectors=" + selectors +
+                ", acceptQueue=" + acceptQueue +
+                ", idleTimeout=" + idleTimeout +
+                ", virtualThreads=" + virtualThreads +
+                '}';
+    }
+}
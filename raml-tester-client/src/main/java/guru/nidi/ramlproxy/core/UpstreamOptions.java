@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+public class UpstreamOptions {
+    public static final int DEFAULT_MAX_CONNECTIONS = 256;
+    public static final int DEFAULT_MAX_QUEUED = 1024;
+    public static final long DEFAULT_CONNECT_TIMEOUT = 15000;
+    public static final long DEFAULT_IDLE_TIMEOUT = 30000;
+    public static final long DEFAULT_TIMEOUT = 60000;
+    public static final UpstreamOptions DEFAULT = new UpstreamOptions("", DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_QUEUED,
+            DEFAULT_CONNECT_TIMEOUT, DEFAULT_IDLE_TIMEOUT, DEFAULT_TIMEOUT, true, true, 0);
+
+    private final String cli;
+    private final int maxConnections;
+    private final int maxQueued;
+    private final long connectTimeout;
+    private final long idleTimeout;
+    private final long timeout;
+    private final boolean tcpNoDelay;
+    private final boolean keepAlive;
+    private final int warmConnections;
+
+    public UpstreamOptions(String cli, int maxConnections, int maxQueued, long connectTimeout, long idleTimeout, long timeout, boolean tcpNoDelay, boolean keepAlive, int warmConnections) {
+        this.cli = cli;
+        this.maxConnections = maxConnections;
+        this.maxQueued = maxQueued;
+        this.connectTimeout = connectTimeout;
+        this.idleTimeout = idleTimeout;
+        this.timeout = timeout;
+        this.tcpNoDelay = tcpNoDelay;
+        this.keepAlive = keepAlive;
+        this.warmConnections = warmConnections;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public long getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public int getWarmConnections() {
+        return warmConnections;
+    }
+
+    public String asCli() {
+        return cli;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final UpstreamOptions that = (UpstreamOptions) o;
+
+        if (maxConnections != that.maxConnections) {
+            return false;
+        }
+        if (maxQueued != that.maxQueued) {
+            return false;
+        }
+        if (connectTimeout != that.connectTimeout) {
+            return false;
+        }
+        if (idleTimeout != that.idleTimeout) {
+            return false;
+        }
+        if (timeout != that.timeout) {
+            return false;
+        }
+        if (tcpNoDelay != that.tcpNoDelay) {
+            return false;
+        }
+        if (keepAlive != that.keepAlive) {
+            return false;
+        }
+        return warmConnections == that.warmConnections;
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxConnections;
+        result = 31 * result + maxQueued;
+        result = 31 * result + (int) (connectTimeout ^ (connectTimeout >>> 32));
+        result = 31 * result + (int) (idleTimeout ^ (idleTimeout >>> 32));
+        result = 31 * result + (int) (timeout ^ (timeout >>> 32));
+        result = 31 * result + (tcpNoDelay ? 1 : 0);
+        result = 31 * result + (keepAlive ? 1 : 0);
+        result = 31 * result + warmConnections;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "UpstreamOptions{" +
+                "maxConnections=" + maxConnections +
+                ", maxQueued=" + maxQueued +
+                ", connectTimeout=" + connectTimeout +
+                ", idleTimeout=" + idleTimeout +
+                ", timeout=" + timeout +
+                ", tcpNoDelay=" + tcpNoDelay +
+                ", keepAlive=" + keepAlive +
+                ", warmConnections=" + warmConnections +
+                '}';
+    }
+}
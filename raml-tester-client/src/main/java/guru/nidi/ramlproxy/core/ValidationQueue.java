@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ValidationQueue implements AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(ValidationQueue.class);
+
+    private final ValidationOptions options;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Object capacity = new Object();
+
+    public ValidationQueue(ValidationOptions options) {
+        this.options = options;
+        if (options.isAsync()) {
+            queue = new ArrayBlockingQueue<>(options.getQueueSize());
+            executor = new ThreadPoolExecutor(options.getThreads(), options.getThreads(), 0, TimeUnit.MILLISECONDS, queue, threadFactory(), new OverflowHandler());
+            executor.prestartAllCoreThreads();
+        } else {
+            queue = null;
+            executor = null;
+        }
+    }
+
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    public void submit(Runnable validation) {
+        submit(validation, true);
+    }
+
+    public void submit(final Runnable validation, boolean mayBlock) {
+        if (!isAsync()) {
+            validation.run();
+            completed.incrementAndGet();
+            return;
+        }
+        if (options.getOverflow() == ValidationOptions.Overflow.SAMPLE && sampledOut()) {
+            dropped.incrementAndGet();
+            return;
+        }
+        try {
+            executor.execute(new Task(validation, mayBlock));
+            enqueued.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    //for callers that must not block on submit (like I/O callbacks), apply the backpressure earlier
+    public void awaitCapacity() throws InterruptedException {
+        if (!isAsync() || options.getOverflow() != ValidationOptions.Overflow.BLOCK || queue.remainingCapacity() > 0) {
+            return;
+        }
+        throttled.incrementAndGet();
+        waiting.incrementAndGet();
+        try {
+            synchronized (capacity) {
+                while (queue.remainingCapacity() == 0 && !executor.isShutdown()) {
+                    capacity.wait(100);
+                }
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private void signalCapacity() {
+        if (waiting.get() > 0) {
+            synchronized (capacity) {
+                capacity.notifyAll();
+            }
+        }
+    }
+
+    //once the queue is half full, admit with a probability decreasing linearly to 0 when full
+    private boolean sampledOut() {
+        final int half = options.getQueueSize() / 2;
+        final int over = queue.size() - half;
+        return over > 0 && ThreadLocalRandom.current().nextInt(options.getQueueSize() - half) < over;
+    }
+
+    public Map<String, Long> getStats() {
+        final Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("enqueued", enqueued.get());
+        stats.put("dropped", dropped.get());
+        stats.put("completed", completed.get());
+        stats.put("throttled", throttled.get());
+        stats.put("pending", isAsync() ? (long) queue.size() : 0);
+        stats.put("active", isAsync() ? (long) executor.getActiveCount() : 0);
+        return stats;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (isAsync()) {
+            executor.shutdown();
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Validation queue not drained, {} validations left", queue.size());
+            }
+        }
+    }
+
+    private class Task implements Runnable {
+        private final Runnable validation;
+        private final boolean mayBlock;
+
+        Task(Runnable validation, boolean mayBlock) {
+            this.validation = validation;
+            this.mayBlock = mayBlock;
+        }
+
+        @Override
+        public void run() {
+            signalCapacity();
+            try {
+                validation.run();
+            } catch (Exception e) {
+                log.error("Problem running validation", e);
+            } finally {
+                completed.incrementAndGet();
+            }
+        }
+    }
+
+    //called by the executor when the queue is full or the executor is shut down
+    private class OverflowHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (!executor.isShutdown() && options.getOverflow() == ValidationOptions.Overflow.BLOCK && ((Task) r).mayBlock) {
+                try {
+                    executor.getQueue().put(r);
+                    //if the executor has been shut down meanwhile, the task might never run
+                    if (!executor.isShutdown() || !executor.getQueue().remove(r)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            throw new RejectedExecutionException("Validation queue is full or closed");
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread thread = new Thread(r, "raml-validator-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+public class WriterOptions {
+    public enum Overflow {
+        BLOCK, DROP
+    }
+
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+    public static final WriterOptions SYNC = new WriterOptions("", false, DEFAULT_QUEUE_SIZE, Overflow.BLOCK);
+
+    private final String cli;
+    private final boolean async;
+    private final int queueSize;
+    private final Overflow overflow;
+
+    public WriterOptions(String cli, boolean async, int queueSize, Overflow overflow) {
+        this.cli = cli;
+        this.async = async;
+        this.queueSize = queueSize;
+        this.overflow = overflow;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    public String asCli() {
+        return cli;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final WriterOptions that = (WriterOptions) o;
+
+        if (async != that.async) {
+            return false;
+        }
+        if (queueSize != that.queueSize) {
+            return false;
+        }
+        return overflow == that.overflow;
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (async ? 1 : 0);
+        result = 31 * result + queueSize;
+        result = 31 * result + (overflow != null ? overflow.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "WriterOptions{" +
+                "async=" + async +
+                ", queueSize=" + queueSize +
+                ", overflow=" + overflow +
+                '}';
+    }
+}
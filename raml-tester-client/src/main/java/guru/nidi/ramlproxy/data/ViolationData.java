@@ -15,6 +15,7 @@
  */
 package guru.nidi.ramlproxy.data;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import guru.nidi.ramltester.core.RamlViolations;
 
@@ -31,14 +32,24 @@ public class ViolationData {
     private final String response;
     private final Map<String, List<Object>> responseHeaders;
     private final List<String> responseViolations;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String responseCapture;
 
+    public ViolationData(long id,
+                         String request, Map<String, List<Object>> requestHeaders, List<String> requestViolations,
+                         String response, Map<String, List<Object>> responseHeaders, List<String> responseViolations) {
+        this(id, request, requestHeaders, requestViolations, response, responseHeaders, responseViolations, null);
+    }
+
+    //responseCapture is null if the whole response body has been validated
     public ViolationData(@JsonProperty("id") long id,
                          @JsonProperty("request") String request,
                          @JsonProperty("requestHeaders") Map<String, List<Object>> requestHeaders,
                          @JsonProperty("requestViolations") List<String> requestViolations,
                          @JsonProperty("response") String response,
                          @JsonProperty("responseHeaders") Map<String, List<Object>> responseHeaders,
-                         @JsonProperty("responseViolations") List<String> responseViolations) {
+                         @JsonProperty("responseViolations") List<String> responseViolations,
+                         @JsonProperty("responseCapture") String responseCapture) {
         this.id = id;
         this.request = request;
         this.requestHeaders = requestHeaders;
@@ -46,16 +57,17 @@ public class ViolationData {
         this.response = response;
         this.responseHeaders = responseHeaders;
         this.responseViolations = responseViolations;
+        this.responseCapture = responseCapture;
     }
 
     public static ViolationData of(long id,
                                    String request, Map<String, List<Object>> requestHeaders,
                                    RamlViolations requestViolations,
                                    String response, Map<String, List<Object>> responseHeaders,
-                                   RamlViolations responseViolations) {
+                                   RamlViolations responseViolations, String responseCapture) {
         return new ViolationData(id,
                 request, requestHeaders, violationMessages(requestViolations),
-                response, responseHeaders, violationMessages(responseViolations));
+                response, responseHeaders, violationMessages(responseViolations), responseCapture);
     }
 
     public long getId() {
@@ -86,6 +98,10 @@ public class ViolationData {
         return responseViolations;
     }
 
+    public String getResponseCapture() {
+        return responseCapture;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -115,7 +131,10 @@ public class ViolationData {
         if (!responseHeaders.equals(data.responseHeaders)) {
             return false;
         }
-        return responseViolations.equals(data.responseViolations);
+        if (!responseViolations.equals(data.responseViolations)) {
+            return false;
+        }
+        return responseCapture != null ? responseCapture.equals(data.responseCapture) : data.responseCapture == null;
 
     }
 
@@ -128,6 +147,7 @@ public class ViolationData {
         result = 31 * result + response.hashCode();
         result = 31 * result + responseHeaders.hashCode();
         result = 31 * result + responseViolations.hashCode();
+        result = 31 * result + (responseCapture != null ? responseCapture.hashCode() : 0);
         return result;
     }
 }
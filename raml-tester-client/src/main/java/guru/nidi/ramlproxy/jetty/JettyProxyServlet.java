@@ -17,12 +17,22 @@ package guru.nidi.ramlproxy.jetty;
 
 import guru.nidi.ramlproxy.core.CommandDecorators;
 import guru.nidi.ramlproxy.core.TesterFilter;
+import guru.nidi.ramlproxy.core.UpstreamOptions;
 import guru.nidi.ramltester.servlet.ServletRamlRequest;
 import guru.nidi.ramltester.servlet.ServletRamlResponse;
+import org.eclipse.jetty.client.ConnectionPool;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpDestination;
+import org.eclipse.jetty.client.PoolingHttpDestination;
+import org.eclipse.jetty.client.api.Destination;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,54 +41,166 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JettyProxyServlet extends org.eclipse.jetty.proxy.ProxyServlet.Transparent {
     private final static Logger log = LoggerFactory.getLogger(JettyProxyServlet.class);
     private final TesterFilter testerFilter;
+    private final UpstreamOptions upstream;
 
-    public JettyProxyServlet(TesterFilter testerFilter) {
+    public JettyProxyServlet(TesterFilter testerFilter, UpstreamOptions upstream) {
         this.testerFilter = testerFilter;
+        this.upstream = upstream;
     }
 
     @Override
     public void init() throws ServletException {
         super.init();
+        warmUp(upstream.getWarmConnections());
         log.info("Proxy started");
     }
 
+    //concurrent requests make the pool open one connection each, they stay idle in the pool afterwards
+    private void warmUp(int connections) {
+        if (connections == 0) {
+            return;
+        }
+        final String target = getServletConfig().getInitParameter("proxyTo");
+        final CountDownLatch latch = new CountDownLatch(connections);
+        final AtomicInteger warmed = new AtomicInteger();
+        for (int i = 0; i < connections; i++) {
+            getHttpClient().newRequest(target).method(HttpMethod.HEAD).send(new Response.CompleteListener() {
+                @Override
+                public void onComplete(Result result) {
+                    if (!result.isFailed()) {
+                        warmed.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        try {
+            if (!latch.await(upstream.getTimeout(), TimeUnit.MILLISECONDS)) {
+                log.warn("Warm up of connections to {} timed out", target);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //requests still running after the timeout are not counted
+        log.info("Warmed up {} of {} connections to {}", warmed.get(), connections, target);
+    }
+
     @Override
     protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        if (!testerFilter.handleCommands(request, response)) {
-            testerFilter.delay();
-            super.service(new ServletRamlRequest(request), new ServletRamlResponse(response));
+        if (!testerFilter.handleCommands(request, response) && !testerFilter.delay(request)) {
+            testerFilter.awaitValidationCapacity();
+            super.service(new ServletRamlRequest(request), testerFilter.ramlResponse(response));
         }
     }
 
     @Override
-    protected void onProxyResponseSuccess(HttpServletRequest clientRequest, HttpServletResponse proxyResponse, Response serverResponse) {
-        test(clientRequest, proxyResponse);
-        super.onProxyResponseSuccess(clientRequest, proxyResponse, serverResponse);
+    protected void onProxyResponseSuccess(final HttpServletRequest clientRequest, final HttpServletResponse proxyResponse, final Response serverResponse) {
+        testAndComplete(clientRequest, proxyResponse, new Runnable() {
+            @Override
+            public void run() {
+                JettyProxyServlet.super.onProxyResponseSuccess(clientRequest, proxyResponse, serverResponse);
+            }
+        });
     }
 
     @Override
-    protected void onProxyResponseFailure(HttpServletRequest clientRequest, HttpServletResponse proxyResponse, Response serverResponse, Throwable failure) {
-        test(clientRequest, proxyResponse);
-        super.onProxyResponseFailure(clientRequest, proxyResponse, serverResponse, failure);
+    protected void onProxyResponseFailure(final HttpServletRequest clientRequest, final HttpServletResponse proxyResponse, final Response serverResponse, final Throwable failure) {
+        testAndComplete(clientRequest, proxyResponse, new Runnable() {
+            @Override
+            public void run() {
+                JettyProxyServlet.super.onProxyResponseFailure(clientRequest, proxyResponse, serverResponse, failure);
+            }
+        });
+    }
+
+    private void testAndComplete(HttpServletRequest clientRequest, HttpServletResponse proxyResponse, Runnable complete) {
+        //prepare before completing, the container recycles request and response afterwards
+        final Runnable validation = testerFilter.prepareValidation((ServletRamlRequest) clientRequest, (ServletRamlResponse) proxyResponse);
+        if (testerFilter.isAsyncValidation()) {
+            complete.run();
+            testerFilter.submitValidation(validation, false);
+        } else {
+            testerFilter.submitValidation(validation, true);
+            complete.run();
+        }
     }
 
-    private void test(HttpServletRequest request, HttpServletResponse response) {
-        testerFilter.test((ServletRamlRequest) request, (ServletRamlResponse) response);
+    @Override
+    protected void onResponseContent(final HttpServletRequest request, final HttpServletResponse response, final Response proxyResponse, byte[] buffer, int offset, final int length, final Callback callback) {
+        if (!testerFilter.isThrottling()) {
+            super.onResponseContent(request, response, proxyResponse, buffer, offset, length, callback);
+            return;
+        }
+        //the buffer may be reused after returning, so copy it before sending it delayed
+        final byte[] content = Arrays.copyOfRange(buffer, offset, offset + length);
+        final Runnable write = new Runnable() {
+            @Override
+            public void run() {
+                JettyProxyServlet.super.onResponseContent(request, response, proxyResponse, content, 0, length, callback);
+            }
+        };
+        //the write blocks on slow clients, so it must not run on the scheduler thread
+        testerFilter.throttle(length, new Runnable() {
+            @Override
+            public void run() {
+                getHttpClient().getExecutor().execute(write);
+            }
+        });
     }
 
+    //max connections, idle timeout and total timeout are given as init parameters, ProxyServlet sets them after this
     @Override
     protected HttpClient newHttpClient() {
-        return new HttpClient(new SslContextFactory());
+        final HttpClient client = new HttpClient(new SslContextFactory());
+        client.setMaxRequestsQueuedPerDestination(upstream.getMaxQueued());
+        client.setConnectTimeout(upstream.getConnectTimeout());
+        client.setTCPNoDelay(upstream.isTcpNoDelay());
+        return client;
+    }
+
+    public Map<String, Long> getPoolStats() {
+        long destinations = 0, active = 0, idle = 0, queued = 0;
+        final HttpClient client = getHttpClient();
+        if (client != null) {
+            for (final Destination destination : client.getDestinations()) {
+                destinations++;
+                if (destination instanceof PoolingHttpDestination) {
+                    final ConnectionPool pool = ((PoolingHttpDestination<?>) destination).getConnectionPool();
+                    active += pool.getActiveConnections().size();
+                    idle += pool.getIdleConnections().size();
+                }
+                if (destination instanceof HttpDestination) {
+                    queued += ((HttpDestination) destination).getHttpExchanges().size();
+                }
+            }
+        }
+        final Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("destinations", destinations);
+        stats.put("active", active);
+        stats.put("idle", idle);
+        stats.put("queued", queued);
+        stats.put("maxConnections", (long) upstream.getMaxConnections());
+        stats.put("maxQueued", (long) upstream.getMaxQueued());
+        return stats;
     }
 
     @Override
     protected void sendProxyRequest(HttpServletRequest request, HttpServletResponse response, Request proxyRequest) {
         final HttpFields headers = proxyRequest.getHeaders();
         headers.remove("Host");
+        if (!upstream.isKeepAlive()) {
+            headers.put(HttpHeader.CONNECTION, HttpHeaderValue.CLOSE.asString());
+        }
         CommandDecorators.IGNORE_COMMANDS.removeFrom(proxyRequest);
         super.sendProxyRequest(request, response, proxyRequest);
     }
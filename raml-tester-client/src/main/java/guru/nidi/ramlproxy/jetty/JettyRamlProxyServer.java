@@ -19,6 +19,7 @@ import guru.nidi.ramlproxy.core.MockServlet;
 import guru.nidi.ramlproxy.core.RamlProxyServer;
 import guru.nidi.ramlproxy.core.ServerOptions;
 import guru.nidi.ramlproxy.core.TesterFilter;
+import guru.nidi.ramlproxy.core.UpstreamOptions;
 import guru.nidi.ramlproxy.report.ReportSaver;
 import guru.nidi.ramltester.RamlDefinition;
 import org.eclipse.jetty.server.Server;
@@ -28,9 +29,11 @@ import org.eclipse.jetty.servlet.ServletHolder;
 
 import javax.servlet.DispatcherType;
 import java.util.EnumSet;
+import java.util.Map;
 
 public class JettyRamlProxyServer extends RamlProxyServer {
     private final Server server;
+    private final JettyProxyServlet proxyServlet;
 
     public JettyRamlProxyServer(ServerOptions options, ReportSaver saver, RamlDefinition definition) throws InterruptedException {
         super(options, saver);
@@ -39,16 +42,22 @@ public class JettyRamlProxyServer extends RamlProxyServer {
         final TesterFilter testerFilter = new TesterFilter(this, saver, definition);
         final ServletHolder servlet;
         if (options.isMockMode()) {
-            servlet = new ServletHolder(new MockServlet(options.getMockDir()));
+            proxyServlet = null;
+            servlet = new ServletHolder(new MockServlet(options.getMockDir(), this));
             context.addFilter(new FilterHolder(testerFilter), "/*", EnumSet.allOf(DispatcherType.class));
         } else {
-            servlet = new ServletHolder(new JettyProxyServlet(testerFilter));
+            final UpstreamOptions upstream = options.getUpstreamOptions();
+            proxyServlet = new JettyProxyServlet(testerFilter, upstream);
+            servlet = new ServletHolder(proxyServlet);
             servlet.setInitParameter("proxyTo", options.getTargetUrl());
             servlet.setInitParameter("viaHost", "localhost"); //avoid calling InetAddress.getLocalHost()
+            servlet.setInitParameter("maxConnections", Integer.toString(upstream.getMaxConnections()));
+            servlet.setInitParameter("idleTimeout", Long.toString(upstream.getIdleTimeout()));
+            servlet.setInitParameter("timeout", Long.toString(upstream.getTimeout()));
         }
         servlet.setInitOrder(1);
         context.addServlet(servlet, "/*");
-        server = JettyServerProvider.getServer(options.getPort());
+        server = JettyServerProvider.getServer(options.getPort(), options.getTuningOptions());
         server.setHandler(context);
         server.setStopAtShutdown(true);
         doStart();
@@ -73,6 +82,11 @@ public class JettyRamlProxyServer extends RamlProxyServer {
         return true;
     }
 
+    @Override
+    protected Map<String, Long> getUpstreamStats() {
+        return proxyServlet == null ? super.getUpstreamStats() : proxyServlet.getPoolStats();
+    }
+
     @Override
     public boolean isStopped() {
         return server.isStopped();
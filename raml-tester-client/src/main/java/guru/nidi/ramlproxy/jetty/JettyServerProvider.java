@@ -15,26 +15,92 @@
  */
 package guru.nidi.ramlproxy.jetty;
 
+import guru.nidi.ramlproxy.core.TuningOptions;
+import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.thread.ExecutorThreadPool;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class JettyServerProvider {
+    private static final Logger log = LoggerFactory.getLogger(JettyServerProvider.class);
+
+    private static final int DEFAULT_MIN_THREADS = 8;
+    private static final int DEFAULT_MAX_THREADS = 200;
+    private static final int THREAD_IDLE_TIMEOUT = 60000;
+
     private static boolean prestarted = false;
     private static final BlockingQueue<Server> PRESTARTED_SERVER = new ArrayBlockingQueue<>(1);
 
-    public static void prestartServer(final int port) {
+    public static void prestartServer(int port) {
+        prestartServer(port, TuningOptions.DEFAULT);
+    }
+
+    public static void prestartServer(final int port, final TuningOptions tuning) {
         prestarted = true;
         new Thread(new Runnable() {
             @Override
             public void run() {
-                PRESTARTED_SERVER.add(new Server(port));
+                PRESTARTED_SERVER.add(createServer(port, tuning));
             }
         }).start();
     }
 
     public static Server getServer(int port) throws InterruptedException {
-        return prestarted ? PRESTARTED_SERVER.take() : new Server(port);
+        return getServer(port, TuningOptions.DEFAULT);
+    }
+
+    public static Server getServer(int port, TuningOptions tuning) throws InterruptedException {
+        return prestarted ? PRESTARTED_SERVER.take() : createServer(port, tuning);
+    }
+
+    private static Server createServer(int port, TuningOptions tuning) {
+        if (tuning.isDefault()) {
+            return new Server(port);
+        }
+        final Server server = new Server(threadPool(tuning));
+        final ServerConnector connector = new ServerConnector(server, tuning.getAcceptors(), tuning.getSelectors(), new HttpConnectionFactory());
+        connector.setPort(port);
+        if (tuning.getAcceptQueue() > 0) {
+            connector.setAcceptQueueSize(tuning.getAcceptQueue());
+        }
+        if (tuning.getIdleTimeout() > 0) {
+            connector.setIdleTimeout(tuning.getIdleTimeout());
+        }
+        server.addConnector(connector);
+        return server;
+    }
+
+    private static ThreadPool threadPool(TuningOptions tuning) {
+        if (tuning.isVirtualThreads()) {
+            final ExecutorService executor = virtualThreadExecutor();
+            if (executor != null) {
+                return new ExecutorThreadPool(executor);
+            }
+            log.warn("Virtual threads are not supported by this JVM, using a thread pool instead.");
+        }
+        final int maxThreads = tuning.getMaxThreads() > 0 ? tuning.getMaxThreads() : DEFAULT_MAX_THREADS;
+        final int minThreads = tuning.getMinThreads() > 0 ? tuning.getMinThreads() : Math.min(DEFAULT_MIN_THREADS, maxThreads);
+        final QueuedThreadPool pool = tuning.getMaxQueued() > 0
+                ? new QueuedThreadPool(maxThreads, minThreads, THREAD_IDLE_TIMEOUT, new ArrayBlockingQueue<Runnable>(tuning.getMaxQueued()))
+                : new QueuedThreadPool(maxThreads, minThreads, THREAD_IDLE_TIMEOUT);
+        pool.setName("raml-proxy");
+        return pool;
+    }
+
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.servlet.ServletRamlRequest;
+import guru.nidi.ramltester.servlet.ServletRamlResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AsyncViolationSink implements ViolationSink {
+    private static final Logger log = LoggerFactory.getLogger(AsyncViolationSink.class);
+    private static final int BATCH_SIZE = 100;
+    private static final Entry CLOSE = new Entry(0, null, null, null, null, null);
+
+    private final ViolationSink delegate;
+    private final long flushInterval;
+    private final boolean dropWhenFull;
+    private final BlockingQueue<Entry> queue;
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public AsyncViolationSink(ViolationSink delegate, long flushInterval, int queueSize, boolean dropWhenFull) {
+        this.delegate = delegate;
+        this.flushInterval = flushInterval;
+        this.dropWhenFull = dropWhenFull;
+        queue = new LinkedBlockingQueue<>(queueSize);
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "raml-violation-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void write(long id, File file, RamlReport report, ServletRamlRequest request, ServletRamlResponse response) throws IOException {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        final Entry entry = new Entry(id, file, report,
+                request == null ? null : SavableServletRamlRequest.of(request),
+                response == null ? null : SavableServletRamlResponse.of(response), null);
+        try {
+            if (dropWhenFull) {
+                if (!queue.offer(entry)) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+            } else {
+                queue.put(entry);
+            }
+            queued.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //waits until everything written so far has reached the delegate and is flushed
+    @Override
+    public void flush() throws IOException {
+        if (!writer.isAlive()) {
+            return;
+        }
+        final CountDownLatch flushed = new CountDownLatch(1);
+        try {
+            queue.put(new Entry(0, null, null, null, null, flushed));
+            if (!flushed.await(10, TimeUnit.SECONDS)) {
+                log.warn("Timeout while flushing violations, {} are still pending", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //writes everything queued so far, then stops the writer thread and closes the delegate
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(CLOSE);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            if (writer.isAlive()) {
+                log.warn("Timeout while closing violation writer, {} violations are still pending", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        final Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queued", queued.get());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("pending", (long) queue.size());
+        return stats;
+    }
+
+    private void writeLoop() {
+        final List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        long lastFlush = System.currentTimeMillis();
+        while (true) {
+            try {
+                final Entry first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    final boolean close = writeBatch(batch);
+                    batch.clear();
+                    if (close) {
+                        //entries that raced with close are still written
+                        queue.drainTo(batch);
+                        writeBatch(batch);
+                        closeDelegate();
+                        return;
+                    }
+                }
+                if (first == null || System.currentTimeMillis() - lastFlush >= flushInterval) {
+                    delegate.flush();
+                    lastFlush = System.currentTimeMillis();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.error("Problem writing violations", e);
+            }
+        }
+    }
+
+    private void closeDelegate() {
+        try {
+            delegate.flush();
+            delegate.close();
+        } catch (IOException e) {
+            log.error("Problem closing violations", e);
+        }
+    }
+
+    private boolean writeBatch(List<Entry> batch) {
+        boolean close = false;
+        for (final Entry entry : batch) {
+            if (entry == CLOSE) {
+                close = true;
+                continue;
+            }
+            try {
+                if (entry.flushed == null) {
+                    delegate.write(entry.id, entry.file, entry.report, entry.request, entry.response);
+                    written.incrementAndGet();
+                } else {
+                    delegate.flush();
+                }
+            } catch (IOException e) {
+                log.error("Problem writing violations", e);
+            } finally {
+                if (entry.flushed != null) {
+                    entry.flushed.countDown();
+                }
+            }
+        }
+        return close;
+    }
+
+    private static class Entry {
+        final long id;
+        final File file;
+        final RamlReport report;
+        final ServletRamlRequest request;
+        final ServletRamlResponse response;
+        final CountDownLatch flushed;
+
+        Entry(long id, File file, RamlReport report, ServletRamlRequest request, ServletRamlResponse response, CountDownLatch flushed) {
+            this.id = id;
+            this.file = file;
+            this.report = report;
+            this.request = request;
+            this.response = response;
+            this.flushed = flushed;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramltester.servlet.ServletRamlResponse;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+//keeps at most maxBytes of the body, bodies with a skipped content type are passed through unchanged
+public class CapturingServletRamlResponse extends ServletRamlResponse {
+    public enum Capture {
+        FULL, TRUNCATED, SKIPPED
+    }
+
+    private final long maxBytes;
+    private final List<String> skipTypes;
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+    private volatile Capture capture = Capture.FULL;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    private JsonSyntaxChecker jsonChecker;
+
+    //maxBytes 0 means no limit, skipTypes are given as type/subtype or type/*
+    public CapturingServletRamlResponse(HttpServletResponse delegate, long maxBytes, List<String> skipTypes) {
+        super(delegate);
+        this.maxBytes = maxBytes;
+        this.skipTypes = skipTypes;
+    }
+
+    public static boolean isSkippedType(String contentType, List<String> skipTypes) {
+        if (contentType == null || skipTypes.isEmpty()) {
+            return false;
+        }
+        final int pos = contentType.indexOf(';');
+        final String type = (pos < 0 ? contentType : contentType.substring(0, pos)).trim().toLowerCase(Locale.ENGLISH);
+        for (final String skip : skipTypes) {
+            if (skip.endsWith("/*") ? type.startsWith(skip.substring(0, skip.length() - 1)) : type.equals(skip)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static Capture captureOf(ServletRamlResponse response) {
+        if (response instanceof CapturingServletRamlResponse) {
+            return ((CapturingServletRamlResponse) response).getCapture();
+        }
+        if (response instanceof SavableServletRamlResponse) {
+            return ((SavableServletRamlResponse) response).getCapture();
+        }
+        return Capture.FULL;
+    }
+
+    public Capture getCapture() {
+        return capture;
+    }
+
+    //a truncated json body cannot be validated against its schema, but it has been checked to be well-formed
+    //returns null if the body is well-formed or has not been checked
+    public String getJsonError() {
+        return capture == Capture.TRUNCATED && jsonChecker != null ? jsonChecker.finish() : null;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = isSkipped()
+                    ? getResponse().getOutputStream()
+                    : new CapturingOutputStream(getResponse().getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            writer = isSkipped()
+                    ? getResponse().getWriter()
+                    : new PrintWriter(new CapturingWriter(getResponse().getWriter()));
+        }
+        return writer;
+    }
+
+    @Override
+    public byte[] getContent() {
+        synchronized (captured) {
+            return captured.toByteArray();
+        }
+    }
+
+    private boolean isSkipped() {
+        final String contentType = getContentType();
+        if (isSkippedType(contentType, skipTypes)) {
+            capture = Capture.SKIPPED;
+            return true;
+        }
+        if (maxBytes > 0 && contentType != null && contentType.toLowerCase(Locale.ENGLISH).contains("json")
+                && getHeader("Content-Encoding") == null && mayBeTruncated()) {
+            jsonChecker = new JsonSyntaxChecker();
+        }
+        return false;
+    }
+
+    //a body with a known length that fits is captured fully and needs no syntax check
+    private boolean mayBeTruncated() {
+        final String length = getHeader("Content-Length");
+        if (length == null) {
+            return true;
+        }
+        try {
+            return Long.parseLong(length.trim()) > maxBytes;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        if (jsonChecker != null) {
+            jsonChecker.update(b, off, len);
+        }
+        if (capture != Capture.FULL) {
+            return;
+        }
+        synchronized (captured) {
+            final long room = maxBytes - captured.size();
+            if (maxBytes > 0 && len > room) {
+                captured.write(b, off, (int) room);
+                capture = Capture.TRUNCATED;
+            } else {
+                captured.write(b, off, len);
+            }
+        }
+    }
+
+    private class CapturingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        CapturingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    //nothing is buffered here, so the container still sees all content when it completes the response
+    private class CapturingWriter extends Writer {
+        private final PrintWriter delegate;
+
+        CapturingWriter(PrintWriter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            delegate.write(cbuf, off, len);
+            final byte[] bytes = new String(cbuf, off, len).getBytes(getCharacterEncoding());
+            capture(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void flush() {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import java.util.regex.Pattern;
+
+//checks if a json document is well-formed while its bytes pass by, without keeping them
+//only the nesting of arrays and objects is stored
+class JsonSyntaxChecker {
+    private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+    private static final int MAX_TOKEN = 64;
+
+    private enum State {VALUE, VALUE_OR_END, KEY, KEY_OR_END, COLON, AFTER_VALUE, STRING, ESCAPE, TOKEN, DONE}
+
+    private State state = State.VALUE;
+    private boolean key;
+    private byte[] stack = new byte[16];
+    private int depth;
+    private final StringBuilder token = new StringBuilder();
+    private long pos;
+    private String error;
+
+    public void update(byte[] b, int off, int len) {
+        for (int i = off; i < off + len && error == null; i++, pos++) {
+            next(b[i]);
+        }
+    }
+
+    //returns null if the document is well-formed
+    public String finish() {
+        if (error == null) {
+            if (state == State.TOKEN) {
+                endToken();
+            }
+            if (error == null && state != State.DONE) {
+                fail("Unexpected end of json document");
+            }
+        }
+        return error;
+    }
+
+    private void next(byte c) {
+        switch (state) {
+            case STRING:
+                if (c == '\\') {
+                    state = State.ESCAPE;
+                } else if (c == '"') {
+                    if (key) {
+                        state = State.COLON;
+                    } else {
+                        valueDone();
+                    }
+                } else if (c >= 0 && c < 0x20) {
+                    fail("Control character in string");
+                }
+                return;
+            case ESCAPE:
+                state = State.STRING;
+                return;
+            case TOKEN:
+                if (isTokenChar(c)) {
+                    if (token.length() < MAX_TOKEN) {
+                        token.append((char) c);
+                    }
+                    return;
+                }
+                endToken();
+                if (error != null) {
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+            return;
+        }
+        switch (state) {
+            case VALUE_OR_END:
+                if (c == ']') {
+                    close((byte) '[');
+                    return;
+                }
+                value(c);
+                return;
+            case VALUE:
+                value(c);
+                return;
+            case KEY_OR_END:
+                if (c == '}') {
+                    close((byte) '{');
+                    return;
+                }
+                keyStart(c);
+                return;
+            case KEY:
+                keyStart(c);
+                return;
+            case COLON:
+                if (c == ':') {
+                    state = State.VALUE;
+                } else {
+                    fail("Expected ':'");
+                }
+                return;
+            case AFTER_VALUE:
+                if (c == ',') {
+                    state = stack[depth - 1] == '{' ? State.KEY : State.VALUE;
+                } else if (c == '}' || c == ']') {
+                    close(c == '}' ? (byte) '{' : (byte) '[');
+                } else {
+                    fail("Expected ',' or end of " + (stack[depth - 1] == '{' ? "object" : "array"));
+                }
+                return;
+            default:
+                fail("Unexpected content after end of json document");
+        }
+    }
+
+    private void value(byte c) {
+        if (c == '{' || c == '[') {
+            if (depth == stack.length) {
+                final byte[] newStack = new byte[depth * 2];
+                System.arraycopy(stack, 0, newStack, 0, depth);
+                stack = newStack;
+            }
+            stack[depth++] = c;
+            state = c == '{' ? State.KEY_OR_END : State.VALUE_OR_END;
+        } else if (c == '"') {
+            key = false;
+            state = State.STRING;
+        } else if (isTokenChar(c)) {
+            token.setLength(0);
+            token.append((char) c);
+            state = State.TOKEN;
+        } else {
+            fail("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void keyStart(byte c) {
+        if (c == '"') {
+            key = true;
+            state = State.STRING;
+        } else {
+            fail("Expected a string as object key");
+        }
+    }
+
+    private void close(byte open) {
+        if (stack[depth - 1] != open) {
+            fail("Unbalanced brackets");
+            return;
+        }
+        depth--;
+        valueDone();
+    }
+
+    private void endToken() {
+        final String t = token.toString();
+        if (!t.equals("true") && !t.equals("false") && !t.equals("null")
+                && t.length() < MAX_TOKEN && !NUMBER.matcher(t).matches()) {
+            fail("Invalid value '" + t + "'");
+            return;
+        }
+        valueDone();
+    }
+
+    private void valueDone() {
+        state = depth == 0 ? State.DONE : State.AFTER_VALUE;
+    }
+
+    private boolean isTokenChar(byte c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '+' || c == '.';
+    }
+
+    private void fail(String message) {
+        error = message + " at byte " + pos;
+    }
+}
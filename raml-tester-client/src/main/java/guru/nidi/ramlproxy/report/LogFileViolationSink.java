@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.servlet.ServletRamlRequest;
+import guru.nidi.ramltester.servlet.ServletRamlResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+public class LogFileViolationSink implements ViolationSink {
+    private static final Logger log = LoggerFactory.getLogger(LogFileViolationSink.class);
+    private static final Charset UTF8 = Charset.forName("utf-8");
+
+    private final File saveDir;
+    private final ReportFormat reportFormat;
+    private final long rotateSize;
+    private final String startup;
+    private int index;
+    private long written;
+    private OutputStream out;
+
+    public LogFileViolationSink(File saveDir, ReportFormat reportFormat, long rotateSize) {
+        this.saveDir = saveDir;
+        this.reportFormat = reportFormat;
+        this.rotateSize = rotateSize;
+        startup = new SimpleDateFormat("yyyy-MM-dd_HH:mm:ss").format(new Date());
+    }
+
+    public File logFile(int index) {
+        final String filename = "raml-violations-" + startup + (index == 0 ? "" : ("--" + index)) + "." + reportFormat.fileExtension;
+        return new File(saveDir, filename);
+    }
+
+    @Override
+    public synchronized void write(long id, File file, RamlReport report, ServletRamlRequest request, ServletRamlResponse response) throws IOException {
+        writeRecord(reportFormat.formatViolationRecord(id, report, request, response).getBytes(UTF8));
+    }
+
+    synchronized void writeRecord(byte[] record) throws IOException {
+        if (out == null) {
+            out = new BufferedOutputStream(new FileOutputStream(logFile(index), true));
+        }
+        out.write(record);
+        written += record.length;
+        if (rotateSize > 0 && written >= rotateSize) {
+            out.close();
+            out = null;
+            written = 0;
+            index++;
+            log.info("Rotating violation log, continuing in {}", logFile(index));
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramlproxy.report.ReportSaver.ReportInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ReportBuffer {
+    private final Deque<ReportInfo> infos = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+
+    //returns the number of evicted reports
+    public int add(ReportInfo info, int maxReports, long maxBytes) {
+        infos.addLast(info);
+        int currentSize = size.incrementAndGet();
+        long currentBytes = bytes.addAndGet(info.size());
+        int evicted = 0;
+        while (currentSize > 1 && ((maxReports > 0 && currentSize > maxReports) || (maxBytes > 0 && currentBytes > maxBytes))) {
+            final ReportInfo removed = infos.pollFirst();
+            if (removed == null) {
+                break;
+            }
+            currentSize = size.decrementAndGet();
+            currentBytes = bytes.addAndGet(-removed.size());
+            evicted++;
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long bytes() {
+        return bytes.get();
+    }
+
+    public List<ReportInfo> asList() {
+        return new ArrayList<>(infos);
+    }
+
+    //the reports with an id greater than since, oldest first
+    //ids are appended in ascending order, so only the tail is walked
+    public List<ReportInfo> asList(long since) {
+        final List<ReportInfo> res = new ArrayList<>();
+        final Iterator<ReportInfo> iter = infos.descendingIterator();
+        while (iter.hasNext()) {
+            final ReportInfo info = iter.next();
+            if (info.getId() <= since) {
+                break;
+            }
+            res.add(info);
+        }
+        Collections.reverse(res);
+        return res;
+    }
+}
@@ -29,11 +29,17 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 public enum ReportFormat {
     TEXT("log") {
+        @Override
+        public String formatViolationRecord(long id, RamlReport report, ServletRamlRequest request, ServletRamlResponse response) throws IOException {
+            return "----- Violation " + id + " -----\n" + formatViolations(id, report, request, response) + "\n\n";
+        }
+
         @Override
         public String formatUsage(Usage usage) throws IOException {
             final StringBuilder s = new StringBuilder();
@@ -55,6 +61,7 @@ public enum ReportFormat {
                     formatHeaders(data.getRequestHeaders()) + "\n" +
                     "\n\n\nResponse violations: " + data.getResponseViolations() + "\n\n" +
                     formatHeaders(data.getResponseHeaders()) + "\n" +
+                    (data.getResponseCapture() == null ? "" : "Body " + data.getResponseCapture() + ", it has not been validated\n") +
                     data.getResponse();
         }
 
@@ -91,6 +98,11 @@ public enum ReportFormat {
 
     public abstract String formatViolations(long id, RamlReport report, ServletRamlRequest request, ServletRamlResponse response) throws IOException;
 
+    //one record of a log file containing many violations
+    public String formatViolationRecord(long id, RamlReport report, ServletRamlRequest request, ServletRamlResponse response) throws IOException {
+        return formatViolations(id, report, request, response) + "\n";
+    }
+
     static String formatRequest(ServletRamlRequest request) {
         return request.getMethod() + " " + request.getRequestURL() +
                 (request.getQueryString() == null ? "" : ("?" + request.getQueryString())) +
@@ -125,6 +137,11 @@ public enum ReportFormat {
                 formatRequest(request), request.getHeaderValues().asMap(),
                 report.getRequestViolations(),
                 content(response, response.getCharacterEncoding()), response.getHeaderValues().asMap(),
-                report.getResponseViolations());
+                report.getResponseViolations(), responseCapture(response));
+    }
+
+    private static String responseCapture(ServletRamlResponse response) {
+        final CapturingServletRamlResponse.Capture capture = CapturingServletRamlResponse.captureOf(response);
+        return capture == CapturingServletRamlResponse.Capture.FULL ? null : capture.name().toLowerCase(Locale.ENGLISH);
     }
 }
@@ -15,21 +15,39 @@
  */
 package guru.nidi.ramlproxy.report;
 
+import guru.nidi.ramlproxy.data.UsageDatas;
 import guru.nidi.ramltester.MultiReportAggregator;
 import guru.nidi.ramltester.core.RamlReport;
 import guru.nidi.ramltester.core.ReportAggregator;
-import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.core.Usage;
 import guru.nidi.ramltester.servlet.ServletRamlRequest;
 import guru.nidi.ramltester.servlet.ServletRamlResponse;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ReportSaver {
-    private final Map<String, List<ReportInfo>> reports = new HashMap<>();
+    private static final int INFO_OVERHEAD = 512;
+
+    private final AtomicReference<Generation> reports = new AtomicReference<>(new Generation());
     private final ReportAggregator aggregator;
+    private final UsageAccumulator usage;
+    private final AtomicLong evicted = new AtomicLong();
+    private final Object appendLock = new Object();
+    private long nextId;
+    private volatile int maxReports;
+    private volatile long maxBytes;
 
     public ReportSaver() {
         this(new MultiReportAggregator());
@@ -37,22 +55,71 @@ public class ReportSaver {
 
     public ReportSaver(ReportAggregator aggregator) {
         this.aggregator = aggregator;
+        usage = new UsageAccumulator(aggregator);
+    }
+
+    //keep at most maxReports/maxBytes per RAML (0 = no limit), evict the oldest first
+    public ReportSaver limitedTo(int maxReports, long maxBytes) {
+        this.maxReports = maxReports;
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    public final void addReport(RamlReport report, ServletRamlRequest request, ServletRamlResponse response) {
+        final SavableServletRamlRequest savableRequest = SavableServletRamlRequest.of(request);
+        final SavableServletRamlResponse savableResponse = SavableServletRamlResponse.of(response);
+        addingReport(report, savableRequest, savableResponse);
+        addUsage(report);
+        //a flush waits for the writers of the generation it replaces, so no report gets lost
+        Generation generation;
+        while (true) {
+            generation = reports.get();
+            generation.writers.incrementAndGet();
+            if (generation == reports.get()) {
+                break;
+            }
+            generation.writers.decrementAndGet();
+        }
+        try {
+            final ReportBuffer buffer = generation.getOrCreate(report.getRaml().title());
+            //ids are assigned in the order of appending, so a reader never sees a lower id appear after a higher one
+            synchronized (appendLock) {
+                final ReportInfo info = new ReportInfo(nextId++, report, savableRequest, savableResponse);
+                evicted.addAndGet(buffer.add(info, maxReports, maxBytes));
+            }
+        } finally {
+            generation.writers.decrementAndGet();
+        }
     }
 
-    public final synchronized void addReport(RamlReport report, ServletRamlRequest request, ServletRamlResponse response) {
-        addingReport(report, request, response);
-        aggregator.addReport(report);
-        getOrCreateInfos(report.getRaml().title()).add(new ReportInfo(report, request, response));
+    public final void addUsage(RamlReport report) {
+        usage.add(report);
     }
 
-    public final synchronized void flushReports() {
-        flushingReports(reports.entrySet());
-        reports.clear();
+    public final void flushReports() {
+        final Generation flushed = reports.getAndSet(new Generation());
+        while (flushed.writers.get() > 0) {
+            Thread.yield();
+        }
+        flushingReports(snapshot(flushed.buffers));
     }
 
     public final void flushUsage() {
-        flushingUsage(aggregator);
-        aggregator.clear();
+        usage.lock();
+        try {
+            flushingUsage(usage.merged());
+            aggregator.clear();
+        } finally {
+            usage.unlock();
+        }
+    }
+
+    public final void flushOutput() {
+        flushingOutput();
+    }
+
+    public final void closeOutput() {
+        closingOutput();
     }
 
     protected void addingReport(RamlReport report, ServletRamlRequest request, ServletRamlResponse response) {
@@ -64,104 +131,216 @@ public class ReportSaver {
     protected void flushingUsage(ReportAggregator aggregator) {
     }
 
-    public synchronized Iterable<Map.Entry<String, List<ReportInfo>>> getReports() {
-        return reports.entrySet();
+    protected void flushingOutput() {
     }
 
-    public synchronized List<ReportInfo> getReports(String context) {
-        return reports.get(context);
+    protected void closingOutput() {
     }
 
-    public ReportAggregator getAggregator() {
-        return aggregator;
+    public Iterable<Map.Entry<String, List<ReportInfo>>> getReports() {
+        return snapshot(reports.get().buffers);
     }
 
-    private List<ReportInfo> getOrCreateInfos(String name) {
-        List<ReportInfo> reportList = reports.get(name);
-        if (reportList == null) {
-            reportList = new ArrayList<>();
-            reports.put(name, reportList);
+    //the reports with an id greater than since, at most limit (0 = no limit) of them, oldest first
+    public Iterable<Map.Entry<String, List<ReportInfo>>> getReports(long since, int limit) {
+        final Collection<ReportBuffer> buffers = reports.get().buffers.values();
+        final PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, buffers.size()));
+        for (final ReportBuffer buffer : buffers) {
+            final Cursor cursor = new Cursor(buffer.asList(since));
+            if (cursor.current() != null) {
+                cursors.add(cursor);
+            }
+        }
+        final Map<String, List<ReportInfo>> res = new LinkedHashMap<>();
+        int count = 0;
+        while (!cursors.isEmpty() && (limit <= 0 || count < limit)) {
+            final Cursor cursor = cursors.poll();
+            final ReportInfo info = cursor.current();
+            final String title = info.getReport().getRaml().title();
+            List<ReportInfo> infos = res.get(title);
+            if (infos == null) {
+                infos = new ArrayList<>();
+                res.put(title, infos);
+            }
+            infos.add(info);
+            count++;
+            if (cursor.next() != null) {
+                cursors.add(cursor);
+            }
         }
-        return reportList;
+        return res.entrySet();
     }
 
-    public static class ReportInfo {
-        private final RamlReport report;
-        private final SavableServletRamlRequest request;
-        private final SavableServletRamlResponse response;
+    public List<ReportInfo> getReports(String context) {
+        final ReportBuffer buffer = reports.get().buffers.get(context);
+        return buffer == null ? null : buffer.asList();
+    }
 
-        public ReportInfo(RamlReport report, ServletRamlRequest request, ServletRamlResponse response) {
-            this.report = report;
-            this.request = new SavableServletRamlRequest(request);
-            this.response = new SavableServletRamlResponse(response);
-        }
+    public long getEvictedReports() {
+        return evicted.get();
+    }
 
-        public RamlReport getReport() {
-            return report;
+    public Map<String, Long> getOutputStats() {
+        return new LinkedHashMap<>();
+    }
+
+    public Map<String, Long> getStats() {
+        long count = 0;
+        long bytes = 0;
+        for (final ReportBuffer buffer : reports.get().buffers.values()) {
+            count += buffer.size();
+            bytes += buffer.bytes();
         }
+        final Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("stored", count);
+        stats.put("bytes", bytes);
+        stats.put("evicted", evicted.get());
+        return stats;
+    }
 
-        public ServletRamlRequest getRequest() {
-            return request;
+    //the aggregator is shared with the writers, so it may only be used while the action runs
+    public <T> T withAggregator(AggregatorAction<T> action) {
+        usage.lock();
+        try {
+            return action.apply(usage.merged());
+        } finally {
+            usage.unlock();
         }
+    }
 
-        public ServletRamlResponse getResponse() {
-            return response;
+    /**
+     * @return the aggregator with all reports added so far merged into it
+     * @deprecated the aggregator keeps being updated by later reports, use {@link #withAggregator(AggregatorAction)}
+     */
+    @Deprecated
+    public ReportAggregator getAggregator() {
+        return withAggregator(new AggregatorAction<ReportAggregator>() {
+            @Override
+            public ReportAggregator apply(ReportAggregator aggregator) {
+                return aggregator;
+            }
+        });
+    }
+
+    public UsageDatas getUsageDatas() {
+        return withAggregator(new AggregatorAction<UsageDatas>() {
+            @Override
+            public UsageDatas apply(ReportAggregator aggregator) {
+                final UsageDatas res = new UsageDatas();
+                for (final Map.Entry<String, Usage> entry : aggregator.usages()) {
+                    res.put(entry.getKey(), ReportFormat.createUsageData(entry.getValue()));
+                }
+                return res;
+            }
+        });
+    }
+
+    public interface AggregatorAction<T> {
+        T apply(ReportAggregator aggregator);
+    }
+
+    private static class Generation {
+        final ConcurrentMap<String, ReportBuffer> buffers = new ConcurrentHashMap<>();
+        final AtomicInteger writers = new AtomicInteger();
+
+        ReportBuffer getOrCreate(String name) {
+            final ReportBuffer buffer = buffers.get(name);
+            if (buffer != null) {
+                return buffer;
+            }
+            final ReportBuffer newBuffer = new ReportBuffer();
+            final ReportBuffer existing = buffers.putIfAbsent(name, newBuffer);
+            return existing == null ? newBuffer : existing;
         }
     }
 
-    private static class SavableServletRamlRequest extends ServletRamlRequest {
-        private final StringBuffer requestURL;
-        private final String queryString;
-        private final Values headerValues;
-        private final String method;
+    private static class Cursor implements Comparable<Cursor> {
+        private final List<ReportInfo> infos;
+        private int pos;
 
-        public SavableServletRamlRequest(ServletRamlRequest delegate) {
-            super(delegate);
-            requestURL = delegate.getRequestURL();
-            queryString = delegate.getQueryString();
-            headerValues = delegate.getHeaderValues();
-            method = delegate.getMethod();
+        Cursor(List<ReportInfo> infos) {
+            this.infos = infos;
         }
 
-        @Override
-        public StringBuffer getRequestURL() {
-            return requestURL;
+        ReportInfo current() {
+            return pos < infos.size() ? infos.get(pos) : null;
         }
 
-        @Override
-        public String getQueryString() {
-            return queryString;
+        ReportInfo next() {
+            pos++;
+            return current();
         }
 
         @Override
-        public Values getHeaderValues() {
-            return headerValues;
+        public int compareTo(Cursor o) {
+            return ReportInfo.BY_ID.compare(current(), o.current());
         }
+    }
 
-        @Override
-        public String getMethod() {
-            return method;
+    private static Iterable<Map.Entry<String, List<ReportInfo>>> snapshot(Map<String, ReportBuffer> buffers) {
+        final Map<String, List<ReportInfo>> res = new HashMap<>();
+        for (final Map.Entry<String, ReportBuffer> entry : buffers.entrySet()) {
+            res.put(entry.getKey(), entry.getValue().asList());
         }
+        return res.entrySet();
     }
 
-    private static class SavableServletRamlResponse extends ServletRamlResponse {
-        private final byte[] content;
-        private final Values headerValues;
+    public static class ReportInfo {
+        static final Comparator<ReportInfo> BY_ID = new Comparator<ReportInfo>() {
+            @Override
+            public int compare(ReportInfo i1, ReportInfo i2) {
+                return Long.compare(i1.getId(), i2.getId());
+            }
+        };
 
-        public SavableServletRamlResponse(ServletRamlResponse delegate) {
-            super(delegate);
-            content = delegate.getContent();
-            headerValues = delegate.getHeaderValues();
+        private final long id;
+        private final RamlReport report;
+        private final SavableServletRamlRequest request;
+        private final SavableServletRamlResponse response;
+        private final long size;
+
+        public ReportInfo(RamlReport report, ServletRamlRequest request, ServletRamlResponse response) {
+            this(0, report, request, response);
         }
 
-        @Override
-        public byte[] getContent() {
-            return content;
+        public ReportInfo(long id, RamlReport report, ServletRamlRequest request, ServletRamlResponse response) {
+            this(id, report, SavableServletRamlRequest.of(request), SavableServletRamlResponse.of(response));
         }
 
-        @Override
-        public Values getHeaderValues() {
-            return headerValues;
+        private ReportInfo(long id, RamlReport report, SavableServletRamlRequest request, SavableServletRamlResponse response) {
+            this(id, report, request, response, INFO_OVERHEAD + length(request.getContent()) + length(response.getContent()));
+        }
+
+        ReportInfo(long id, RamlReport report, SavableServletRamlRequest request, SavableServletRamlResponse response, long size) {
+            this.id = id;
+            this.report = report;
+            this.request = request;
+            this.response = response;
+            this.size = size;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public RamlReport getReport() {
+            return report;
+        }
+
+        public ServletRamlRequest getRequest() {
+            return request;
+        }
+
+        public ServletRamlResponse getResponse() {
+            return response;
+        }
+
+        long size() {
+            return size;
+        }
+
+        private static int length(byte[] content) {
+            return content == null ? 0 : content.length;
         }
     }
 }
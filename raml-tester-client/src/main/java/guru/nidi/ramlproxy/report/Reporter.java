@@ -38,13 +38,19 @@ public class Reporter extends ReportSaver {
 
     private final File saveDir;
     private final ReportFormat reportFormat;
+    private volatile ViolationSink sink;
 
-    private String startup;
-    private AtomicLong id;
+    private volatile String startup;
+    private volatile AtomicLong id;
 
     public Reporter(File saveDir, ReportFormat reportFormat) {
+        this(saveDir, reportFormat, null);
+    }
+
+    public Reporter(File saveDir, ReportFormat reportFormat, ViolationSink sink) {
         this.saveDir = saveDir;
         this.reportFormat = reportFormat;
+        this.sink = sink == null ? new FilePerViolationSink() : sink;
         if (saveDir == null) {
             log.info("NOT reporting into a file.");
         } else {
@@ -53,6 +59,11 @@ public class Reporter extends ReportSaver {
         flushingReports(null);
     }
 
+    public Reporter writingAsync(int queueSize, boolean dropWhenFull, long flushInterval) {
+        sink = new AsyncViolationSink(sink, flushInterval, queueSize, dropWhenFull);
+        return this;
+    }
+
     @Override
     protected void addingReport(RamlReport report, ServletRamlRequest request, ServletRamlResponse response) {
         if (!report.isEmpty()) {
@@ -68,6 +79,24 @@ public class Reporter extends ReportSaver {
         id = new AtomicLong();
     }
 
+    @Override
+    protected void flushingOutput() {
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            log.error("Problem flushing violations", e);
+        }
+    }
+
+    @Override
+    protected void closingOutput() {
+        try {
+            sink.close();
+        } catch (IOException e) {
+            log.error("Problem closing violations", e);
+        }
+    }
+
     @Override
     public void flushingUsage(ReportAggregator aggregator) {
         for (final Map.Entry<String, Usage> entry : aggregator.usages()) {
@@ -76,6 +105,11 @@ public class Reporter extends ReportSaver {
         }
     }
 
+    @Override
+    public Map<String, Long> getOutputStats() {
+        return sink instanceof AsyncViolationSink ? ((AsyncViolationSink) sink).getStats() : super.getOutputStats();
+    }
+
     public File violationsFile(long idValue) {
         final String filename = "raml-violation-" + startup + "--" + idValue + "." + reportFormat.fileExtension;
         return new File(saveDir, filename);
@@ -95,9 +129,7 @@ public class Reporter extends ReportSaver {
             return;
         }
         try {
-            try (OutputStreamWriter out = new OutputStreamWriter(new FileOutputStream(violationsFile(id)))) {
-                out.write(reportFormat.formatViolations(id, report, request, response));
-            }
+            sink.write(id, violationsFile(id), report, request, response);
         } catch (IOException e) {
             log.error("Problem writing error file", e);
         }
@@ -119,4 +151,21 @@ public class Reporter extends ReportSaver {
             log.error("Problem writing error file", e);
         }
     }
+
+    private class FilePerViolationSink implements ViolationSink {
+        @Override
+        public void write(long id, File file, RamlReport report, ServletRamlRequest request, ServletRamlResponse response) throws IOException {
+            try (OutputStreamWriter out = new OutputStreamWriter(new FileOutputStream(file))) {
+                out.write(reportFormat.formatViolations(id, report, request, response));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.servlet.ServletRamlRequest;
+
+public class SavableServletRamlRequest extends ServletRamlRequest {
+    private final StringBuffer requestURL;
+    private final String servletPath;
+    private final String pathInfo;
+    private final String queryString;
+    private final Values queryValues;
+    private final Values formValues;
+    private final Values headerValues;
+    private final String method;
+    private final String contentType;
+    private final byte[] content;
+    private final String remoteHost;
+
+    public SavableServletRamlRequest(ServletRamlRequest delegate) {
+        this(delegate, true);
+    }
+
+    public SavableServletRamlRequest(ServletRamlRequest delegate, boolean withContent) {
+        super(delegate);
+        requestURL = delegate.getRequestURL();
+        servletPath = delegate.getServletPath();
+        pathInfo = delegate.getPathInfo();
+        queryString = delegate.getQueryString();
+        queryValues = delegate.getQueryValues();
+        formValues = delegate.getFormValues();
+        headerValues = delegate.getHeaderValues();
+        method = delegate.getMethod();
+        contentType = delegate.getContentType();
+        content = withContent ? delegate.getContent() : new byte[0];
+        remoteHost = delegate.getRemoteHost();
+    }
+
+    public static SavableServletRamlRequest of(ServletRamlRequest request) {
+        return request instanceof SavableServletRamlRequest
+                ? (SavableServletRamlRequest) request
+                : new SavableServletRamlRequest(request);
+    }
+
+    @Override
+    public String getRequestUrl(String baseUri, boolean includeServletPath) {
+        return baseUri == null
+                ? requestURL.toString()
+                : baseUri + (includeServletPath ? servletPath : "") + (pathInfo == null ? "" : pathInfo);
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        return requestURL;
+    }
+
+    @Override
+    public String getServletPath() {
+        return servletPath;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return pathInfo;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public Values getQueryValues() {
+        return queryValues;
+    }
+
+    @Override
+    public Values getFormValues() {
+        return formValues;
+    }
+
+    @Override
+    public Values getHeaderValues() {
+        return headerValues;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public byte[] getContent() {
+        return content;
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return remoteHost;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.servlet.ServletRamlResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public class SavableServletRamlResponse extends ServletRamlResponse {
+    private final int status;
+    private final String contentType;
+    private final String characterEncoding;
+    private final byte[] content;
+    private final Values headerValues;
+    private final CapturingServletRamlResponse.Capture capture;
+
+    public SavableServletRamlResponse(ServletRamlResponse delegate) {
+        this(delegate, true);
+    }
+
+    public SavableServletRamlResponse(ServletRamlResponse delegate, boolean withContent) {
+        this(delegate, withContent ? delegate.getContent() : new byte[0], CapturingServletRamlResponse.captureOf(delegate));
+    }
+
+    private SavableServletRamlResponse(ServletRamlResponse delegate, byte[] content, CapturingServletRamlResponse.Capture capture) {
+        super(delegate);
+        status = delegate.getStatus();
+        contentType = delegate.getContentType();
+        characterEncoding = delegate.getCharacterEncoding();
+        this.content = content;
+        headerValues = delegate.getHeaderValues();
+        this.capture = capture;
+    }
+
+    //a gzip or deflate encoded body is validated in its decoded form
+    //if it decodes to more than maxBytes (0 = no limit), it is treated like a truncated capture and has no content
+    public static ServletRamlResponse decoded(ServletRamlResponse response, long maxBytes) {
+        final String encoding = response.getHeader("Content-Encoding");
+        if (encoding == null || !(encoding.equalsIgnoreCase("gzip") || encoding.equalsIgnoreCase("deflate"))) {
+            return response;
+        }
+        final byte[] content = response.getContent();
+        try (final InputStream in = encoding.equalsIgnoreCase("gzip")
+                ? new GZIPInputStream(new ByteArrayInputStream(content))
+                : new InflaterInputStream(new ByteArrayInputStream(content))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(content.length * 4);
+            final byte[] buf = new byte[8192];
+            int read;
+            while ((read = in.read(buf)) > 0) {
+                if (maxBytes > 0 && out.size() + read > maxBytes) {
+                    return new SavableServletRamlResponse(response, new byte[0], CapturingServletRamlResponse.Capture.TRUNCATED);
+                }
+                out.write(buf, 0, read);
+            }
+            return new SavableServletRamlResponse(response, out.toByteArray(), CapturingServletRamlResponse.captureOf(response));
+        } catch (IOException e) {
+            return response;
+        }
+    }
+
+    public static SavableServletRamlResponse of(ServletRamlResponse response) {
+        return response instanceof SavableServletRamlResponse
+                ? (SavableServletRamlResponse) response
+                : new SavableServletRamlResponse(response);
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    @Override
+    public byte[] getContent() {
+        return content;
+    }
+
+    @Override
+    public Values getHeaderValues() {
+        return headerValues;
+    }
+
+    public CapturingServletRamlResponse.Capture getCapture() {
+        return capture;
+    }
+}
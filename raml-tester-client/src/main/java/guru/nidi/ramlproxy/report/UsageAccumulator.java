@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.core.ReportAggregator;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+class UsageAccumulator {
+    static final int MAX_PENDING = 1024;
+    private static final Executor MERGER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "raml-usage-merger");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final ReportAggregator aggregator;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<RamlReport>[] stripes;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean merging = new AtomicBoolean();
+    private final Runnable mergeTask = new Runnable() {
+        @Override
+        public void run() {
+            lock.lock();
+            try {
+                merge();
+            } finally {
+                lock.unlock();
+                merging.set(false);
+            }
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    public UsageAccumulator(ReportAggregator aggregator) {
+        this.aggregator = aggregator;
+        stripes = new Queue[Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) * 2];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    public void add(RamlReport report) {
+        stripes[(int) (Thread.currentThread().getId() & (stripes.length - 1))].add(report);
+        //keep the backlog bounded, but merge in the background so the caller never waits for it
+        if (pending.incrementAndGet() >= MAX_PENDING && merging.compareAndSet(false, true)) {
+            MERGER.execute(mergeTask);
+        }
+    }
+
+    public void lock() {
+        lock.lock();
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+    //must be called with the lock held
+    public ReportAggregator merged() {
+        merge();
+        return aggregator;
+    }
+
+    private void merge() {
+        for (final Queue<RamlReport> stripe : stripes) {
+            RamlReport report;
+            while ((report = stripe.poll()) != null) {
+                pending.decrementAndGet();
+                aggregator.addReport(report);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.servlet.ServletRamlRequest;
+import guru.nidi.ramltester.servlet.ServletRamlResponse;
+
+import java.io.File;
+import java.io.IOException;
+
+public interface ViolationSink {
+    //file is the violation file chosen when the violation was reported, sinks not writing one file per violation ignore it
+    void write(long id, File file, RamlReport report, ServletRamlRequest request, ServletRamlResponse response) throws IOException;
+
+    void flush() throws IOException;
+
+    void close() throws IOException;
+}
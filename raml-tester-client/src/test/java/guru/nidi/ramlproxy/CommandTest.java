@@ -18,6 +18,7 @@ package guru.nidi.ramlproxy;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import guru.nidi.ramlproxy.core.RamlProxyServer;
 import guru.nidi.ramlproxy.core.ServerOptions;
+import guru.nidi.ramlproxy.core.UpstreamOptions;
 import guru.nidi.ramlproxy.core.ValidatorConfigurator;
 import guru.nidi.ramlproxy.data.*;
 import guru.nidi.ramlproxy.report.ReportSaver;
@@ -108,6 +109,7 @@ public class CommandTest {
         Thread.sleep(10);
 
         final HttpResponse res = proxySender.get(REPORTS);
+        assertEquals("0", res.getFirstHeader(EVICTED_REPORTS_HEADER).getValue());
         final String content = content(res);
         final Map<String, List<Map<String, Object>>> resAsMap = mapped(content, Map.class);
         assertEquals(map("simple", list(map(
@@ -248,6 +250,46 @@ public class CommandTest {
         assertEquals("root definition has no documentation", resAsData.getValidationViolations().get(0));
     }
 
+    @Test
+    public void reportsSince() throws Exception {
+        mockSender.get("v1/data?q=1");
+        mockSender.get("v1/data?q=2");
+        mockSender.get("v1/data?q=3");
+        Thread.sleep(10);
+
+        final ViolationDatas first = REPORTS.decode(content(proxySender.get(REPORTS, "since=-1&limit=2")));
+        assertEquals(2, first.get("simple").size());
+        assertEquals(0L, (long) first.get("simple").get(0).getId());
+        assertEquals(1L, (long) first.get("simple").get(1).getId());
+
+        final ViolationDatas next = REPORTS.decode(content(proxySender.get(REPORTS, "since=1")));
+        assertEquals(1, next.get("simple").size());
+        assertEquals(2L, (long) next.get("simple").get(0).getId());
+
+        final ViolationDatas none = REPORTS.decode(content(proxySender.get(REPORTS, "since=2")));
+        assertTrue(none.isEmpty());
+    }
+
+    @Test
+    public void stats() throws Exception {
+        //the mock validates synchronously, so the validation is completed when the response arrives
+        mockSender.contentOfGet("v1/data?q=1");
+
+        final StatsDatas stats = proxySender.send(STATS);
+        final Map<String, Long> validation = stats.get("validation");
+        assertEquals(1L, (long) validation.get("completed"));
+        assertEquals(0L, (long) validation.get("enqueued"));
+        assertEquals(0L, (long) validation.get("dropped"));
+        assertEquals(0L, (long) validation.get("pending"));
+        assertNotNull(stats.get("output"));
+
+        //the command is forwarded to the mock, so the proxy's own stats show the connection used for it
+        final Map<String, Long> upstream = proxy.getStats().get("upstream");
+        assertEquals(1L, (long) upstream.get("destinations"));
+        assertEquals(0L, (long) upstream.get("queued"));
+        assertEquals((long) UpstreamOptions.DEFAULT_MAX_CONNECTIONS, (long) upstream.get("maxConnections"));
+    }
+
     @SuppressWarnings("unchecked")
     private <T> T mapped(String source, Class<?> target) throws IOException {
         return (T) new ObjectMapper().readValue(source, target);
@@ -83,11 +83,15 @@ public class HttpSender extends CommandSender {
     }
 
     public HttpResponse corsGet(String path, String origin) throws IOException {
+        return get(path, "Origin", origin);
+    }
+
+    public HttpResponse get(String path, String header, String value) throws IOException {
         final HttpGet get = new HttpGet(url(path));
         if (ignoreCommands) {
             CommandDecorators.IGNORE_COMMANDS.set(get, null);
         }
-        get.setHeader("Origin", origin);
+        get.setHeader(header, value);
         return client.execute(get);
     }
 
@@ -15,10 +15,13 @@
  */
 package guru.nidi.ramlproxy;
 
+import guru.nidi.ramlproxy.core.CaptureOptions;
 import guru.nidi.ramlproxy.core.RamlProxyServer;
 import guru.nidi.ramlproxy.core.ServerOptions;
+import guru.nidi.ramlproxy.report.CapturingServletRamlResponse;
 import guru.nidi.ramlproxy.report.ReportSaver;
 import guru.nidi.ramlproxy.report.ReportSaver.ReportInfo;
+import guru.nidi.ramlproxy.report.SavableServletRamlResponse;
 import guru.nidi.ramltester.core.RamlReport;
 import guru.nidi.ramltester.core.RamlViolationMessage;
 import org.apache.http.HttpResponse;
@@ -26,8 +29,19 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static guru.nidi.ramlproxy.core.CommandSender.content;
 import static org.hamcrest.CoreMatchers.containsString;
@@ -78,6 +92,76 @@ public class MockTest {
         assertTrue(report.getResponseViolations().isEmpty());
     }
 
+    @Test
+    public void notModified() throws Exception {
+        final HttpResponse res = sender.get("v1/super/sub");
+        assertEquals(200, res.getStatusLine().getStatusCode());
+        assertEquals("163", content(res));
+        final String etag = res.getFirstHeader("ETag").getValue();
+        assertNotNull(res.getFirstHeader("Last-Modified"));
+
+        final HttpResponse cached = sender.get("v1/super/sub", "If-None-Match", etag);
+        assertEquals(304, cached.getStatusLine().getStatusCode());
+        assertEquals(etag, cached.getFirstHeader("ETag").getValue());
+
+        final HttpResponse changed = sender.get("v1/super/sub", "If-None-Match", "\"other\"");
+        assertEquals(200, changed.getStatusLine().getStatusCode());
+        assertEquals("163", content(changed));
+    }
+
+    @Test
+    public void notModifiedNotValidated() throws Exception {
+        final String etag = sender.get("v1/super/sub").getFirstHeader("ETag").getValue();
+        Thread.sleep(20);
+        proxy.getSaver().flushReports();
+
+        final HttpResponse cached = sender.get("v1/super/sub", "If-None-Match", etag);
+        Thread.sleep(20);
+        assertEquals(304, cached.getStatusLine().getStatusCode());
+        assertNull(proxy.getSaver().getReports("simple"));
+    }
+
+    @Test
+    public void createdFile() throws Exception {
+        final File mockDir = Files.createTempDirectory("mocks").toFile();
+        final File dir = new File(mockDir, "v1");
+        final File file = new File(dir, "created.json");
+        try {
+            assertTrue(dir.mkdir());
+            proxy.close();
+            proxy = RamlProxy.startServerSync(new ServerOptions(sender.getPort(), mockDir.getPath(), Ramls.SIMPLE, "http://nidi.guru/raml", null, null, true), new ReportSaver());
+            assertEquals(404, sender.get("v1/created").getStatusLine().getStatusCode());
+            try (final FileOutputStream out = new FileOutputStream(file)) {
+                out.write("\"created\"".getBytes("utf-8"));
+            }
+            assertEquals("\"created\"", awaitContent("v1/created", 200, null));
+            try (final FileOutputStream out = new FileOutputStream(file)) {
+                out.write("\"modified\"".getBytes("utf-8"));
+            }
+            awaitContent("v1/created", 200, "\"modified\"");
+            assertTrue(file.delete());
+            awaitContent("v1/created", 404, null);
+        } finally {
+            file.delete();
+            dir.delete();
+            mockDir.delete();
+        }
+    }
+
+    //the watcher reports changes after at most 1 second
+    private String awaitContent(String path, int status, String expected) throws IOException, InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            final HttpResponse res = sender.get(path);
+            final String content = content(res);
+            if (res.getStatusLine().getStatusCode() == status && (expected == null || expected.equals(content))) {
+                return content;
+            }
+            Thread.sleep(100);
+        }
+        fail("Mock file '" + path + "' was not updated");
+        return null;
+    }
+
     @Test
     public void noFile() throws Exception {
         final HttpResponse res = sender.get("v1/notExisting");
@@ -123,6 +207,98 @@ public class MockTest {
         assertTrue(report.getResponseViolations().isEmpty());
     }
 
+    @Test
+    public void truncatedCapture() throws Exception {
+        proxy.close();
+        final ServerOptions options = new ServerOptions(sender.getPort(), Ramls.MOCK_DIR, Ramls.SIMPLE, "http://nidi.guru/raml", null, null, true)
+                .withCaptureOptions(new CaptureOptions("-kbytes=1", 1, Collections.<String>emptyList()));
+        proxy = RamlProxy.startServerSync(options, new ReportSaver());
+
+        final HttpResponse res = sender.get("v1/data");
+        Thread.sleep(20);
+        assertEquals("42", content(res));
+
+        final List<ReportInfo> reports = proxy.getSaver().getReports("simple");
+        assertEquals(1, reports.size());
+        final SavableServletRamlResponse response = (SavableServletRamlResponse) reports.get(0).getResponse();
+        assertEquals(CapturingServletRamlResponse.Capture.TRUNCATED, response.getCapture());
+        assertEquals(0, response.getContent().length);
+        assertEquals("Response(202) is not defined on action(GET /data)",
+                reports.get(0).getReport().getResponseViolations().iterator().next().getMessage());
+    }
+
+    @Test
+    public void flushWhileAdding() throws Exception {
+        proxy.close();
+        final AtomicInteger flushed = new AtomicInteger();
+        proxy = RamlProxy.startServerSync(new ServerOptions(sender.getPort(), Ramls.MOCK_DIR, Ramls.SIMPLE, "http://nidi.guru/raml", null, null, true), new ReportSaver() {
+            @Override
+            protected void flushingReports(Iterable<Map.Entry<String, List<ReportInfo>>> reports) {
+                for (final Map.Entry<String, List<ReportInfo>> entry : reports) {
+                    flushed.addAndGet(entry.getValue().size());
+                }
+            }
+        });
+
+        final int threads = 4, requests = 50;
+        final CountDownLatch done = sendConcurrently(threads, requests);
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            proxy.getSaver().flushReports();
+        }
+        int total = 0;
+        for (int i = 0; i < 100 && total < threads * requests; i++) {
+            Thread.sleep(20);
+            final List<ReportInfo> stored = proxy.getSaver().getReports("simple");
+            total = flushed.get() + (stored == null ? 0 : stored.size());
+        }
+        assertEquals(threads * requests, total);
+    }
+
+    @Test
+    public void pollSinceWhileAdding() throws Exception {
+        final int threads = 4, requests = 50;
+        final CountDownLatch done = sendConcurrently(threads, requests);
+        final Set<Long> seen = new HashSet<>();
+        long since = -1;
+        boolean finished = false;
+        while (!finished) {
+            finished = done.await(1, TimeUnit.MILLISECONDS);
+            if (finished) {
+                Thread.sleep(100);
+            }
+            for (final Map.Entry<String, List<ReportInfo>> entry : proxy.getSaver().getReports(since, 0)) {
+                for (final ReportInfo info : entry.getValue()) {
+                    assertTrue("Report " + info.getId() + " seen twice", seen.add(info.getId()));
+                    since = Math.max(since, info.getId());
+                }
+            }
+        }
+        assertEquals(threads * requests, seen.size());
+        assertEquals(threads * requests - 1, since);
+    }
+
+    private CountDownLatch sendConcurrently(int threads, final int requests) {
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final HttpSender s = new HttpSender(sender.getPort());
+                    try {
+                        for (int i = 0; i < requests; i++) {
+                            content(s.get("v1/data"));
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        return done;
+    }
+
     private RamlReport assertOneReport() {
         final List<ReportInfo> reports = proxy.getSaver().getReports("simple");
         assertEquals(1, reports.size());
@@ -15,8 +15,16 @@
  */
 package guru.nidi.ramlproxy.cli;
 
+import guru.nidi.ramlproxy.core.LatencyOptions;
+import guru.nidi.ramlproxy.core.OutputOptions;
+import guru.nidi.ramlproxy.core.SamplingOptions;
 import guru.nidi.ramlproxy.core.ServerOptions;
+import guru.nidi.ramlproxy.core.StorageOptions;
+import guru.nidi.ramlproxy.core.TuningOptions;
+import guru.nidi.ramlproxy.core.UpstreamOptions;
+import guru.nidi.ramlproxy.core.ValidationOptions;
 import guru.nidi.ramlproxy.core.ValidatorConfigurator;
+import guru.nidi.ramlproxy.core.WriterOptions;
 import guru.nidi.ramlproxy.report.ReportFormat;
 import guru.nidi.ramltester.core.Validation;
 import org.apache.commons.cli.ParseException;
@@ -24,6 +32,8 @@ import org.junit.Test;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static guru.nidi.ramlproxy.cli.OptionsParser.DEFAULT_PORT;
 import static org.junit.Assert.assertEquals;
@@ -115,6 +125,114 @@ public class ServerOptionsParserTest {
         assertEquals(new ServerOptions(DEFAULT_PORT, "http://target", null, "raml", null, null, ReportFormat.TEXT, false, false, 0, 0, new ValidatorConfigurator("-vempty,resourcePattern=a", Arrays.asList(Validation.EMPTY), "a", null, null)), opt);
     }
 
+    @Test
+    public void defaultAsyncValidation() throws ParseException {
+        final ServerOptions opt = parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-e"});
+        assertEquals(new ServerOptions(DEFAULT_PORT, "http://target", "raml", null).withValidationOptions(
+                new ValidationOptions("-e", true, ValidationOptions.DEFAULT_THREADS, ValidationOptions.DEFAULT_QUEUE_SIZE, ValidationOptions.Overflow.BLOCK)), opt);
+    }
+
+    @Test
+    public void asyncValidation() throws ParseException {
+        final ServerOptions opt = parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-ethreads=2,queue=50,overflow=drop"});
+        assertEquals(new ServerOptions(DEFAULT_PORT, "http://target", "raml", null).withValidationOptions(
+                new ValidationOptions("-ethreads=2,queue=50,overflow=drop", true, 2, 50, ValidationOptions.Overflow.DROP)), opt);
+        assertEquals(opt, parser.fromArgs(opt.asCli().toArray(new String[0])));
+    }
+
+    @Test(expected = ParseException.class)
+    public void wrongOverflow() throws ParseException {
+        parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-eoverflow=crash"});
+    }
+
+    @Test
+    public void sampling() throws ParseException {
+        final ServerOptions opt = parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-lrate=0.1,first=5,/users/{id}=0.5"});
+        final Map<String, Double> resourceRates = new LinkedHashMap<>();
+        resourceRates.put("/users/{id}", .5);
+        assertEquals(new ServerOptions(DEFAULT_PORT, "http://target", "raml", null).withSamplingOptions(
+                new SamplingOptions("-lrate=0.1,first=5,/users/{id}=0.5", .1, 5, resourceRates)), opt);
+        assertEquals(opt, parser.fromArgs(opt.asCli().toArray(new String[0])));
+    }
+
+    @Test(expected = ParseException.class)
+    public void wrongSamplingRate() throws ParseException {
+        parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-lrate=2"});
+    }
+
+    @Test
+    public void storageLimits() throws ParseException {
+        final ServerOptions opt = parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-creports=100,bytes=2m"});
+        assertEquals(new ServerOptions(DEFAULT_PORT, "http://target", "raml", null).withStorageOptions(
+                new StorageOptions("-creports=100,bytes=2m", 100, 2 * 1024 * 1024)), opt);
+    }
+
+    @Test
+    public void logFileOutput() throws ParseException {
+        final ServerOptions opt = parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-oflush=500,rotate=10m"});
+        final ServerOptions expected = new ServerOptions(DEFAULT_PORT, "http://target", "raml", null).withOutputOptions(
+                new OutputOptions("-oflush=500,rotate=10m", true, 500, 10 * 1024 * 1024));
+        assertEquals(expected, opt);
+        assertEquals(expected, parser.fromArgs(expected.asCli().toArray(new String[0])));
+    }
+
+    @Test
+    public void asyncWriter() throws ParseException {
+        final ServerOptions opt = parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-wqueue=50,overflow=drop"});
+        assertEquals(new ServerOptions(DEFAULT_PORT, "http://target", "raml", null).withWriterOptions(
+                new WriterOptions("-wqueue=50,overflow=drop", true, 50, WriterOptions.Overflow.DROP)), opt);
+    }
+
+    @Test(expected = ParseException.class)
+    public void wrongWriterOverflow() throws ParseException {
+        parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-woverflow=sample"});
+    }
+
+    @Test
+    public void latency() throws ParseException {
+        final ServerOptions opt = parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-ydistribution=lognormal,mean=100,stddev=50,bandwidth=1m,/users/{id}=300"});
+        final Map<String, Double> resourceMeans = new LinkedHashMap<>();
+        resourceMeans.put("/users/{id}", 300.0);
+        assertEquals(new ServerOptions(DEFAULT_PORT, "http://target", "raml", null).withLatencyOptions(
+                new LatencyOptions("-ydistribution=lognormal,mean=100,stddev=50,bandwidth=1m,/users/{id}=300",
+                        LatencyOptions.Distribution.LOGNORMAL, 100, 50, 0, resourceMeans, 1024 * 1024)), opt);
+    }
+
+    @Test(expected = ParseException.class)
+    public void paretoWithoutShape() throws ParseException {
+        parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-ydistribution=pareto,mean=100"});
+    }
+
+    @Test
+    public void tuning() throws ParseException {
+        final ServerOptions opt = parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-jthreads=10-50,queue=500,acceptors=2,selectors=4,acceptQueue=128,idle=5000"});
+        assertEquals(new ServerOptions(DEFAULT_PORT, "http://target", "raml", null).withTuningOptions(
+                new TuningOptions("-jthreads=10-50,queue=500,acceptors=2,selectors=4,acceptQueue=128,idle=5000", 10, 50, 500, 2, 4, 128, 5000, false)), opt);
+    }
+
+    @Test(expected = ParseException.class)
+    public void minThreadsGreaterMax() throws ParseException {
+        parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-jthreads=50-10"});
+    }
+
+    @Test
+    public void upstream() throws ParseException {
+        final ServerOptions opt = parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-uconnections=64,queue=100,connectTimeout=2000,keepAlive=false"});
+        assertEquals(new ServerOptions(DEFAULT_PORT, "http://target", "raml", null).withUpstreamOptions(
+                new UpstreamOptions("-uconnections=64,queue=100,connectTimeout=2000,keepAlive=false", 64, 100, 2000,
+                        UpstreamOptions.DEFAULT_IDLE_TIMEOUT, UpstreamOptions.DEFAULT_TIMEOUT, true, false, 0)), opt);
+    }
+
+    @Test(expected = ParseException.class)
+    public void warmMoreThanMaxConnections() throws ParseException {
+        parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-uconnections=4,warm=8"});
+    }
+
+    @Test(expected = ParseException.class)
+    public void warmWithoutKeepAlive() throws ParseException {
+        parser.fromArgs(new String[]{"-r", "raml", "-t", "http://target", "-uwarm=2,keepAlive=false"});
+    }
+
     @Test
     public void noSpaceArgs() throws ParseException {
         final ServerOptions opt = parser.fromArgs(new String[]{"-rraml", "-thttp://target", "-ssave"});
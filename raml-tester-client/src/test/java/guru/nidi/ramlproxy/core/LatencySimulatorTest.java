@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import guru.nidi.ramlproxy.core.LatencyOptions.Distribution;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LatencySimulatorTest {
+    private static final Map<String, Double> NO_RESOURCES = Collections.emptyMap();
+
+    @Test
+    public void uniformBounds() {
+        final LatencySimulator latency = new LatencySimulator(LatencyOptions.UNIFORM, 10, 20);
+        assertTrue(latency.isDelaying());
+        for (int i = 0; i < 1000; i++) {
+            assertBetween(10, 20, latency.nextDelay("/any"));
+        }
+    }
+
+    @Test
+    public void noDelay() {
+        final LatencySimulator latency = new LatencySimulator(LatencyOptions.UNIFORM, 0, 0);
+        assertFalse(latency.isDelaying());
+        assertEquals(0, latency.nextDelay("/any"));
+    }
+
+    @Test
+    public void distributionBoundedByMinMax() {
+        for (final Distribution distribution : new Distribution[]{Distribution.NORMAL, Distribution.LOGNORMAL, Distribution.PARETO}) {
+            final LatencySimulator latency = new LatencySimulator(options(distribution, 50, 100, NO_RESOURCES), 10, 60);
+            for (int i = 0; i < 1000; i++) {
+                assertBetween(10, 60, latency.nextDelay("/any"));
+            }
+        }
+    }
+
+    @Test
+    public void unboundedNeverNegative() {
+        final LatencySimulator latency = new LatencySimulator(options(Distribution.NORMAL, 10, 100, NO_RESOURCES), 0, 0);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(latency.nextDelay("/any") >= 0);
+        }
+    }
+
+    @Test
+    public void paretoAboveScale() {
+        //shape 2, mean 100 gives scale 50
+        final LatencySimulator latency = new LatencySimulator(options(Distribution.PARETO, 100, 0, NO_RESOURCES), 0, 0);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(latency.nextDelay("/any") >= 50);
+        }
+    }
+
+    @Test
+    public void resourceScaling() {
+        final LatencySimulator latency = new LatencySimulator(options(Distribution.NORMAL, 100, 0,
+                Collections.singletonMap("/slow/{id}", 300.0)), 0, 0);
+        assertEquals(300, latency.nextDelay("/slow/1"));
+        assertEquals(300, latency.nextDelay("/slow/abc/"));
+        assertEquals(100, latency.nextDelay("/slow/1/more"));
+        assertEquals(100, latency.nextDelay("/other"));
+        assertEquals(100, latency.nextDelay(null));
+    }
+
+    @Test
+    public void resourceScalingBounded() {
+        final LatencySimulator latency = new LatencySimulator(options(Distribution.NORMAL, 100, 0,
+                Collections.singletonMap("/slow", 300.0)), 0, 200);
+        assertEquals(200, latency.nextDelay("/slow"));
+    }
+
+    @Test
+    public void transferTime() {
+        final LatencySimulator latency = new LatencySimulator(new LatencyOptions("", Distribution.UNIFORM, 0, 0, 0, NO_RESOURCES, 1000), 0, 0);
+        assertTrue(latency.isThrottling());
+        assertEquals(500, latency.transferTime(500));
+        assertEquals(0, new LatencySimulator(LatencyOptions.UNIFORM, 0, 0).transferTime(500));
+    }
+
+    private static LatencyOptions options(Distribution distribution, double mean, double stddev, Map<String, Double> resourceMeans) {
+        return new LatencyOptions("", distribution, mean, stddev, 2, resourceMeans, 0);
+    }
+
+    private static void assertBetween(long min, long max, long value) {
+        assertTrue(value + " not in [" + min + "," + max + "]", value >= min && value <= max);
+    }
+}
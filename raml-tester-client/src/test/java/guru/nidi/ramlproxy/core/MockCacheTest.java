@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import guru.nidi.ramlproxy.Ramls;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class MockCacheTest {
+    private final File data = new File(Ramls.MOCK_DIR, "v1/data.json");
+    private final File meta = new File(Ramls.MOCK_DIR, "v1/META-data.json");
+    private final AtomicInteger loads = new AtomicInteger();
+    private final MockCache.Loader<Object> loader = new MockCache.Loader<Object>() {
+        @Override
+        public Object load(File file) {
+            loads.incrementAndGet();
+            return new Object();
+        }
+    };
+
+    @Test
+    public void cachedWithinBudget() throws Exception {
+        final MockCache cache = new MockCache(data.length() + meta.length());
+        cache.get(data, loader);
+        cache.get(meta, loader);
+        cache.get(data, loader);
+        cache.get(meta, loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void resizeEvictsLeastRecentlyUsed() throws Exception {
+        final MockCache cache = new MockCache(data.length() + meta.length());
+        final Object value = cache.get(data, loader);
+        cache.get(meta, loader);
+        cache.resize(data, value, data.length() + 1);
+        assertEquals(value, cache.get(data, loader));
+        assertEquals(2, loads.get());
+        cache.get(meta, loader);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void resizeIgnoresReplacedValue() throws Exception {
+        final MockCache cache = new MockCache(data.length() + meta.length());
+        cache.get(data, loader);
+        cache.get(meta, loader);
+        cache.resize(data, new Object(), data.length() + meta.length());
+        cache.get(data, loader);
+        cache.get(meta, loader);
+        assertEquals(2, loads.get());
+    }
+}
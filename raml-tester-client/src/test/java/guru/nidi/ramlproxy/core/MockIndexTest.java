@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import guru.nidi.ramlproxy.Ramls;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MockIndexTest {
+    private final File mockDir = new File(Ramls.MOCK_DIR);
+    private final MockIndex index = new MockIndex(mockDir, Collections.singleton("json"));
+
+    @Test
+    public void normalizedDirs() {
+        final File data = new File(mockDir, "v1/data.json").getAbsoluteFile();
+        assertEquals(data, index.findFile(new File(mockDir, "v1"), "data"));
+        assertEquals(data, index.findFile(new File(mockDir, "./v1/."), "data"));
+        assertEquals(data, index.findFile(new File(mockDir, "v1/super/../"), "data"));
+        assertEquals(data, index.findFile(new File(mockDir.getPath() + "//v1"), "data"));
+    }
+
+    @Test
+    public void outsideMockDir() {
+        assertNull(index.findFile(new File(mockDir, "v1/../.."), "data"));
+    }
+}
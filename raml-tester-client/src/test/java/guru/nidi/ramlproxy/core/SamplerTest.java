@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class SamplerTest {
+    private static final Map<String, Double> NO_RATES = Collections.emptyMap();
+
+    @Test
+    public void firstCallsPerRamlResource() {
+        final Sampler sampler = new Sampler(new SamplingOptions("", 0, 5, NO_RATES));
+        sampler.reset(Arrays.asList("/users", "/users/{id}", "/users/{id}/address"));
+        assertEquals(5, sampled(sampler, "GET", "/v1/users/", 1000));
+        assertEquals(5, sampled(sampler, "GET", "/v1/users/", 1000, "/address"));
+        assertEquals(5, sampled(sampler, "PUT", "/v1/users/", 1000));
+        assertEquals(1, sampled(sampler, "GET", "/v1/users", 1));
+    }
+
+    @Test
+    public void firstCallsPerConfiguredResource() {
+        final Sampler sampler = new Sampler(new SamplingOptions("", 0, 3, Collections.singletonMap("/users/{id}", 0.0)));
+        sampler.reset(Collections.<String>emptyList());
+        assertEquals(3, sampled(sampler, "GET", "/users/", 1000));
+    }
+
+    @Test
+    public void unmatchedShareOneCount() {
+        final Sampler sampler = new Sampler(new SamplingOptions("", 0, 5, NO_RATES));
+        sampler.reset(Collections.singletonList("/users/{id}"));
+        assertEquals(5, sampled(sampler, "GET", "/other/", 1000));
+        assertEquals(0, sampled(sampler, "POST", "/more/", 1000));
+    }
+
+    @Test
+    public void resetClearsCounts() {
+        final Sampler sampler = new Sampler(new SamplingOptions("", 0, 2, NO_RATES));
+        sampler.reset(Collections.singletonList("/users/{id}"));
+        assertEquals(2, sampled(sampler, "GET", "/users/", 10));
+        sampler.reset(Collections.singletonList("/users/{id}"));
+        assertEquals(2, sampled(sampler, "GET", "/users/", 10));
+    }
+
+    private static int sampled(Sampler sampler, String method, String prefix, int ids) {
+        return sampled(sampler, method, prefix, ids, "");
+    }
+
+    private static int sampled(Sampler sampler, String method, String prefix, int ids, String suffix) {
+        int count = 0;
+        for (int i = 0; i < ids; i++) {
+            if (sampler.sample(method, prefix + (ids == 1 ? "" : i) + suffix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.core;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationQueueTest {
+    @Test
+    public void completesAll() throws Exception {
+        final ValidationQueue queue = new ValidationQueue(new ValidationOptions("-e", true, 2, 10, ValidationOptions.Overflow.BLOCK));
+        final CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            queue.submit(countDown(done));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        queue.close();
+        final Map<String, Long> stats = queue.getStats();
+        assertEquals(50L, (long) stats.get("enqueued"));
+        assertEquals(50L, (long) stats.get("completed"));
+        assertEquals(0L, (long) stats.get("dropped"));
+    }
+
+    @Test
+    public void dropsWhenFull() throws Exception {
+        final ValidationQueue queue = new ValidationQueue(new ValidationOptions("-e", true, 1, 1, ValidationOptions.Overflow.DROP));
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        queue.submit(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final CountDownLatch done = new CountDownLatch(1);
+        queue.submit(countDown(done));
+        queue.submit(countDown(done));
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        queue.close();
+        final Map<String, Long> stats = queue.getStats();
+        assertEquals(2L, (long) stats.get("enqueued"));
+        assertEquals(1L, (long) stats.get("dropped"));
+        assertEquals(2L, (long) stats.get("completed"));
+    }
+
+    @Test
+    public void dropsAfterClose() throws Exception {
+        final ValidationQueue queue = new ValidationQueue(new ValidationOptions("-e", true, 1, 10, ValidationOptions.Overflow.BLOCK));
+        queue.close();
+        queue.submit(countDown(new CountDownLatch(1)));
+        assertEquals(0L, (long) queue.getStats().get("enqueued"));
+        assertEquals(1L, (long) queue.getStats().get("dropped"));
+    }
+
+    private Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+}
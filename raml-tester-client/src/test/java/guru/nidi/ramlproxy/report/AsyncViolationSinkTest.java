@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.servlet.ServletRamlRequest;
+import guru.nidi.ramltester.servlet.ServletRamlResponse;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncViolationSinkTest {
+    private final RecordingSink delegate = new RecordingSink();
+    private AsyncViolationSink sink;
+
+    @After
+    public void close() {
+        delegate.gate.countDown();
+        if (sink != null) {
+            sink.close();
+        }
+    }
+
+    @Test
+    public void dropsWhenFull() throws Exception {
+        sink = new AsyncViolationSink(delegate, 10000, 2, true);
+        write(1);
+        assertTrue(delegate.entered.await(1, TimeUnit.SECONDS));
+        write(2);
+        write(3);
+        write(4);
+        write(5);
+        assertEquals(2L, (long) sink.getStats().get("dropped"));
+        assertEquals(3L, (long) sink.getStats().get("queued"));
+
+        delegate.gate.countDown();
+        sink.flush();
+        assertEquals(Arrays.asList(1L, 2L, 3L), delegate.ids);
+    }
+
+    @Test
+    public void blocksWhenFull() throws Exception {
+        sink = new AsyncViolationSink(delegate, 10000, 1, false);
+        write(1);
+        assertTrue(delegate.entered.await(1, TimeUnit.SECONDS));
+        write(2);
+        final Thread blocked = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write(3);
+            }
+        });
+        blocked.start();
+        blocked.join(200);
+        assertTrue(blocked.isAlive());
+
+        delegate.gate.countDown();
+        blocked.join(1000);
+        assertFalse(blocked.isAlive());
+        sink.flush();
+        assertEquals(Arrays.asList(1L, 2L, 3L), delegate.ids);
+        assertEquals(0L, (long) sink.getStats().get("dropped"));
+    }
+
+    @Test
+    public void flushWaitsForQueued() throws Exception {
+        delegate.gate.countDown();
+        delegate.writeTime = 20;
+        sink = new AsyncViolationSink(delegate, 10000, 100, false);
+        for (int i = 1; i <= 5; i++) {
+            write(i);
+        }
+        sink.flush();
+        assertEquals(5, delegate.ids.size());
+        assertEquals(5L, (long) sink.getStats().get("written"));
+        assertTrue(delegate.flushes.get() > 0);
+    }
+
+    @Test
+    public void closeDrainsAndRejects() throws Exception {
+        delegate.gate.countDown();
+        delegate.writeTime = 20;
+        sink = new AsyncViolationSink(delegate, 10000, 100, false);
+        for (int i = 1; i <= 5; i++) {
+            write(i);
+        }
+        sink.close();
+        assertEquals(5, delegate.ids.size());
+        final int flushes = delegate.flushes.get();
+        assertTrue(flushes > 0);
+        assertEquals(1, delegate.closes.get());
+
+        write(6);
+        sink.flush();
+        assertEquals(5, delegate.ids.size());
+        assertEquals(1L, (long) sink.getStats().get("dropped"));
+        assertEquals(flushes, delegate.flushes.get());
+    }
+
+    private void write(long id) {
+        try {
+            sink.write(id, new File("violation-" + id), null, null, null);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static class RecordingSink implements ViolationSink {
+        final List<Long> ids = new CopyOnWriteArrayList<>();
+        final AtomicInteger flushes = new AtomicInteger();
+        final AtomicInteger closes = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        volatile long writeTime;
+
+        @Override
+        public void write(long id, File file, RamlReport report, ServletRamlRequest request, ServletRamlResponse response) {
+            entered.countDown();
+            try {
+                gate.await();
+                Thread.sleep(writeTime);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ids.add(id);
+        }
+
+        @Override
+        public void flush() {
+            flushes.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            closes.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JsonSyntaxCheckerTest {
+    @Test
+    public void wellFormed() {
+        assertNull(check("{\"a\": [1, -2.5e3, true, null, {\"b\\\"\": \"x\"}], \"c\": {}}"));
+        assertNull(check(" [] "));
+        assertNull(check("\"text\""));
+    }
+
+    @Test
+    public void chunked() {
+        final JsonSyntaxChecker checker = new JsonSyntaxChecker();
+        final byte[] json = "{\"values\": [123, 456, \"abc\"]}".getBytes();
+        for (int i = 0; i < json.length; i += 3) {
+            checker.update(json, i, Math.min(3, json.length - i));
+        }
+        assertNull(checker.finish());
+    }
+
+    @Test
+    public void malformed() {
+        assertEquals("Expected ',' or end of array at byte 3", check("[1 2]"));
+        assertEquals("Expected a string as object key at byte 1", check("{a: 1}"));
+        assertEquals("Invalid value 'tru' at byte 4", check("[tru]"));
+        assertEquals("Unbalanced brackets at byte 2", check("[1}"));
+        assertEquals("Unexpected content after end of json document at byte 3", check("{} {}"));
+        assertEquals("Unexpected end of json document at byte 5", check("[1, 2"));
+    }
+
+    private String check(String json) {
+        final JsonSyntaxChecker checker = new JsonSyntaxChecker();
+        final byte[] bytes = json.getBytes();
+        checker.update(bytes, 0, bytes.length);
+        return checker.finish();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class LogFileViolationSinkTest {
+    private final File dir = createDir();
+    private final LogFileViolationSink sink = new LogFileViolationSink(dir, ReportFormat.TEXT, 100);
+
+    @After
+    public void cleanup() throws IOException {
+        sink.close();
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void rotatesWhenFull() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            sink.writeRecord(record(40));
+        }
+        sink.close();
+        assertEquals(120, sink.logFile(0).length());
+        assertEquals(80, sink.logFile(1).length());
+        assertFalse(sink.logFile(2).exists());
+        assertEquals(2, dir.listFiles().length);
+    }
+
+    @Test
+    public void closeWritesPending() throws IOException {
+        sink.writeRecord(record(10));
+        assertEquals(0, sink.logFile(0).length());
+        sink.close();
+        assertEquals(10, sink.logFile(0).length());
+        sink.writeRecord(record(10));
+        sink.close();
+        assertEquals(20, sink.logFile(0).length());
+    }
+
+    private byte[] record(int size) {
+        final byte[] record = new byte[size];
+        record[size - 1] = '\n';
+        return record;
+    }
+
+    private static File createDir() {
+        try {
+            return Files.createTempDirectory("violations").toFile();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramlproxy.report.ReportSaver.ReportInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReportBufferTest {
+    private final ReportBuffer buffer = new ReportBuffer();
+
+    @Test
+    public void unlimited() {
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(0, buffer.add(info(i, 100), 0, 0));
+        }
+        assertEquals(5, buffer.size());
+        assertEquals(500, buffer.bytes());
+        assertEquals(ids(1, 2, 3, 4, 5), ids(buffer.asList()));
+    }
+
+    @Test
+    public void evictsByCount() {
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(0, buffer.add(info(i, 100), 3, 0));
+        }
+        assertEquals(1, buffer.add(info(4, 100), 3, 0));
+        assertEquals(1, buffer.add(info(5, 100), 3, 0));
+        assertEquals(3, buffer.size());
+        assertEquals(300, buffer.bytes());
+        assertEquals(ids(3, 4, 5), ids(buffer.asList()));
+    }
+
+    @Test
+    public void evictsByBytes() {
+        assertEquals(0, buffer.add(info(1, 100), 0, 250));
+        assertEquals(0, buffer.add(info(2, 100), 0, 250));
+        assertEquals(2, buffer.add(info(3, 200), 0, 250));
+        assertEquals(ids(3), ids(buffer.asList()));
+        assertEquals(0, buffer.add(info(4, 50), 0, 250));
+        assertEquals(ids(3, 4), ids(buffer.asList()));
+        assertEquals(250, buffer.bytes());
+    }
+
+    @Test
+    public void keepsAtLeastOne() {
+        assertEquals(0, buffer.add(info(1, 1000), 0, 100));
+        assertEquals(ids(1), ids(buffer.asList()));
+        assertEquals(1, buffer.add(info(2, 1000), 0, 100));
+        assertEquals(ids(2), ids(buffer.asList()));
+        assertEquals(1, buffer.size());
+        assertEquals(1000, buffer.bytes());
+    }
+
+    @Test
+    public void since() {
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(info(i, 100), 0, 0);
+        }
+        assertEquals(ids(4, 5), ids(buffer.asList(3)));
+        assertEquals(ids(), ids(buffer.asList(5)));
+        assertEquals(ids(1, 2, 3, 4, 5), ids(buffer.asList(0)));
+    }
+
+    private ReportInfo info(long id, long size) {
+        return new ReportInfo(id, null, null, null, size);
+    }
+
+    private List<Long> ids(List<ReportInfo> infos) {
+        final List<Long> res = new ArrayList<>();
+        for (final ReportInfo info : infos) {
+            res.add(info.getId());
+        }
+        return res;
+    }
+
+    private List<Long> ids(long... ids) {
+        final List<Long> res = new ArrayList<>();
+        for (final long id : ids) {
+            res.add(id);
+        }
+        return res;
+    }
+}
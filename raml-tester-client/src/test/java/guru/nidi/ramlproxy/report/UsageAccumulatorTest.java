@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramlproxy.report;
+
+import guru.nidi.ramlproxy.Ramls;
+import guru.nidi.ramltester.RamlLoaders;
+import guru.nidi.ramltester.SimpleReportAggregator;
+import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.model.internal.RamlApi;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class UsageAccumulatorTest {
+    private static final RamlApi RAML = RamlLoaders.fromFile(".").load(Ramls.SIMPLE).getRaml();
+
+    private final CountingAggregator aggregator = new CountingAggregator();
+    private final UsageAccumulator accumulator = new UsageAccumulator(aggregator);
+
+    @Test
+    public void mergesInBackgroundWhenFull() throws Exception {
+        for (int i = 0; i < UsageAccumulator.MAX_PENDING - 1; i++) {
+            accumulator.add(new RamlReport(RAML));
+        }
+        Thread.sleep(100);
+        assertEquals(0, aggregator.added.get());
+
+        accumulator.add(new RamlReport(RAML));
+        for (int i = 0; i < 50 && aggregator.added.get() < UsageAccumulator.MAX_PENDING; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(UsageAccumulator.MAX_PENDING, aggregator.added.get());
+    }
+
+    @Test
+    public void mergedWhileAdding() throws Exception {
+        final int threads = 8, reports = 2000;
+        final List<Thread> adders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final Thread adder = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < reports; i++) {
+                        accumulator.add(new RamlReport(RAML));
+                    }
+                }
+            });
+            adder.start();
+            adders.add(adder);
+        }
+        //flush concurrently with the adders, no report may be lost or merged twice
+        while (isAlive(adders)) {
+            merge();
+        }
+        for (final Thread adder : adders) {
+            adder.join();
+        }
+        merge();
+        assertEquals(threads * reports, aggregator.added.get());
+    }
+
+    private void merge() {
+        accumulator.lock();
+        try {
+            accumulator.merged();
+        } finally {
+            accumulator.unlock();
+        }
+    }
+
+    private static boolean isAlive(List<Thread> threads) {
+        for (final Thread thread : threads) {
+            if (thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class CountingAggregator extends SimpleReportAggregator {
+        final AtomicInteger added = new AtomicInteger();
+
+        @Override
+        public RamlReport addReport(RamlReport report) {
+            added.incrementAndGet();
+            return super.addReport(report);
+        }
+    }
+}